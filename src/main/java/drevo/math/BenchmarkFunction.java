@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+/**
+ * <p>Continuous benchmark functions, all with minimum 0, evaluated with the {@link Kernels} of the JVM.
+ * The signature of evaluate is the one of a DenseFitness, so a benchmark can be given to a DensePSO as
+ * {@code BenchmarkFunction.RASTRIGIN::evaluate}, and a ContinuousAnnealingFunction can compute
+ * it over its values.
+ * <pre>
+ * - SPHERE
+ * The sum of x[i]^2, minimum at 0.
+ * - RASTRIGIN
+ * 10 * n + the sum of x[i]^2 - 10 * cos(2 * pi * x[i]), minimum at 0.
+ * - ROSENBROCK
+ * The sum of 100 * (x[i + 1] - x[i]^2)^2 + (1 - x[i])^2, minimum at 1.
+ * - ACKLEY
+ * -20 * exp(-0.2 * sqrt(sum of x[i]^2 / n)) - exp(sum of cos(2 * pi * x[i]) / n) + 20 + e, minimum at 0.
+ * </pre>
+ */
+public enum BenchmarkFunction {
+    SPHERE(-5.12, 5.12),
+    RASTRIGIN(-5.12, 5.12),
+    ROSENBROCK(-5.0, 10.0),
+    ACKLEY(-32.768, 32.768);
+
+    private static final Kernels KERNELS = Kernels.get();
+
+    private final double low;
+    private final double upper;
+
+    BenchmarkFunction(double low, double upper) {
+        this.low = low;
+        this.upper = upper;
+    }
+
+    /**
+     * The usual domain of each coordinate.
+     */
+    public Interval bounds() {
+        return new Interval(low, upper);
+    }
+
+    /**
+     * Evaluate the function on all the values of x.
+     */
+    public double evaluate(double[] x) {
+        return evaluate(x, 0, x.length);
+    }
+
+    /**
+     * Evaluate the function on a row of x.
+     * 
+     * @param x The values.
+     * @param offset Where the row starts.
+     * @param dimention How many values the row has.
+     * @return The value of the function.
+     */
+    public double evaluate(double[] x, int offset, int dimention) {
+        switch (this) {
+            case SPHERE:
+                return KERNELS.sumOfSquares(x, offset, dimention);
+            case RASTRIGIN:
+                return 10.0 * dimention + KERNELS.rastrigin(x, offset, dimention);
+            case ROSENBROCK:
+                return KERNELS.rosenbrock(x, offset, dimention);
+            default:
+                double squares = KERNELS.sumOfSquares(x, offset, dimention) / dimention;
+                double cosines = KERNELS.sumOfCosines(x, offset, dimention) / dimention;
+
+                return -20.0 * Math.exp(-0.2 * Math.sqrt(squares)) - Math.exp(cosines) + 20.0 + Math.E;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+/**
+ * <p>The inner loops of the continuous optimizations, over rows of arrays of doubles: the move of a
+ * particle of a PSO and the sums of the benchmark functions. There are two implementations:
+ * <pre>
+ * - scalar
+ * Plain loops, that run in any JVM.
+ * - vector
+ * Loops over the lanes of the SIMD registers of the processor, with the Vector API of the module
+ * jdk.incubator.vector. They are only compiled by the build with -Pvector, and only used when the
+ * module is in the boot layer, that is, when the JVM runs with --add-modules jdk.incubator.vector.
+ * They can be turned off with -Ddrevo.math.vector=false.
+ * </pre>
+ * 
+ * <p>The results of both are the same but for the rounding, because the vector sums add the terms in
+ * another order.
+ */
+public interface Kernels {
+    /**
+     * Move a particle: v = w * v + c1 * r1 * (best - x) + c2 * r2 * (guide - x), then x = x + v.
+     * 
+     * @param x The positions, the particle starts at offset.
+     * @param v The velocities, the particle starts at offset.
+     * @param best The personal best positions, the particle starts at offset.
+     * @param offset Where the particle starts in x, v and best.
+     * @param guide The position that guides the particle, usually the global best.
+     * @param guideOffset Where the guide starts.
+     * @param r1 The random factors of the personal best, from 0.
+     * @param r2 The random factors of the guide, from 0.
+     * @param length How many coordinates the particle has.
+     * @param w The inertia weight.
+     * @param c1 The cognitive weight.
+     * @param c2 The social weight.
+     */
+    void move(double[] x, double[] v, double[] best, int offset, double[] guide, int guideOffset,
+            double[] r1, double[] r2, int length, double w, double c1, double c2);
+
+    /**
+     * The sum of x[i]^2.
+     */
+    double sumOfSquares(double[] x, int offset, int length);
+
+    /**
+     * The sum of cos(2 * pi * x[i]).
+     */
+    double sumOfCosines(double[] x, int offset, int length);
+
+    /**
+     * The sum of x[i]^2 - 10 * cos(2 * pi * x[i]), the Rastrigin function without its constant.
+     */
+    double rastrigin(double[] x, int offset, int length);
+
+    /**
+     * The sum of 100 * (x[i + 1] - x[i]^2)^2 + (1 - x[i])^2, the Rosenbrock function.
+     */
+    double rosenbrock(double[] x, int offset, int length);
+
+    /**
+     * The plain loops.
+     */
+    static Kernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * The vector loops when the Vector API is available, otherwise the plain ones.
+     */
+    static Kernels get() {
+        return VectorSupport.KERNELS;
+    }
+
+    /**
+     * True if the vector loops are in use.
+     */
+    static boolean isVectorized() {
+        return get() != ScalarKernels.INSTANCE;
+    }
+}
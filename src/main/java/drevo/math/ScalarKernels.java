@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+/**
+ * The kernels in plain loops.
+ */
+final class ScalarKernels implements Kernels {
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public void move(double[] x, double[] v, double[] best, int offset, double[] guide, int guideOffset,
+            double[] r1, double[] r2, int length, double w, double c1, double c2) {
+        for (int i = 0; i < length; i++) {
+            int k = offset + i;
+
+            v[k] = w * v[k] + c1 * r1[i] * (best[k] - x[k]) + c2 * r2[i] * (guide[guideOffset + i] - x[k]);
+            x[k] += v[k];
+        }
+    }
+
+    @Override
+    public double sumOfSquares(double[] x, int offset, int length) {
+        double sum = 0.0;
+
+        for (int i = offset; i < offset + length; i++) {
+            sum += x[i] * x[i];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double sumOfCosines(double[] x, int offset, int length) {
+        double sum = 0.0;
+
+        for (int i = offset; i < offset + length; i++) {
+            sum += Math.cos(TWO_PI * x[i]);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double rastrigin(double[] x, int offset, int length) {
+        double sum = 0.0;
+
+        for (int i = offset; i < offset + length; i++) {
+            sum += x[i] * x[i] - 10.0 * Math.cos(TWO_PI * x[i]);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double rosenbrock(double[] x, int offset, int length) {
+        double sum = 0.0;
+
+        for (int i = offset; i < offset + length - 1; i++) {
+            double a = x[i + 1] - x[i] * x[i];
+            double b = 1.0 - x[i];
+
+            sum += 100.0 * a * a + b * b;
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+/**
+ * Choose the kernels once, when they are first used. The vector kernels are not compiled with the
+ * library, only with the profile vector of the build, so their class is found by name and only after
+ * the module of the Vector API is found, so a JVM without it never loads the class.
+ */
+final class VectorSupport {
+    static final String VECTOR_KERNELS = "drevo.math.VectorKernels";
+
+    static final Kernels KERNELS = choose();
+
+    private VectorSupport() {
+    }
+
+    private static Kernels choose() {
+        if (!Boolean.parseBoolean(System.getProperty("drevo.math.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarKernels.INSTANCE;
+        }
+
+        try {
+            return (Kernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // The library was built without the vector kernels.
+            return ScalarKernels.INSTANCE;
+        }
+    }
+}
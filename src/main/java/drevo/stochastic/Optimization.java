@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <p>The handle of an optimization process running in another thread. The result is delivered by a
+ * CompletableFuture, and while the process runs the handle gives the best solution found so far
+ * and the progress, without stopping the search.
+ * 
+ * <p>Cancelling the handle, or its future, is cooperative: the future is completed as cancelled at
+ * once, and the process stops in its next step, releasing the thread. The best solution found until
+ * then can still be read.
+ *
+ * @param <T> The type of the solution.
+ */
+public class Optimization<T> {
+    private final CompletableFuture<T> future;
+    private final Supplier<T> best;
+    private final DoubleSupplier progress;
+
+    /**
+     * Create the handle of a process that is not started yet.
+     * 
+     * @param best Give the best solution found so far, or null if there is none yet.
+     * @param progress Give the progress of the process, from 0 to 1.
+     * @param stop Ask the process to stop.
+     */
+    public Optimization(Supplier<T> best, DoubleSupplier progress, Runnable stop) {
+        if (best == null || progress == null || stop == null) {
+            throw new IllegalArgumentException("Best, progress and stop cannot be null.");
+        }
+
+        this.future = new CompletableFuture<>();
+        this.best = best;
+        this.progress = progress;
+
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                stop.run();
+            }
+        });
+    }
+
+    /**
+     * Run the search in the executor and complete the future with its result.
+     * 
+     * @param executor Where the search runs.
+     * @param search The optimization process.
+     * @return This handle.
+     */
+    public Optimization<T> start(Executor executor, Supplier<T> search) {
+        // Even when cancelled before it starts, the search runs to stop in its first step and release its resources.
+        executor.execute(() -> {
+            try {
+                future.complete(search.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return this;
+    }
+
+    /**
+     * The result of the process.
+     */
+    public CompletableFuture<T> future() {
+        return future;
+    }
+
+    /**
+     * Stop the process.
+     * 
+     * @return true if the process was running and was cancelled by this call.
+     */
+    public boolean cancel() {
+        return future.cancel(false);
+    }
+
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Wait for the result of the process.
+     */
+    public T join() {
+        return future.join();
+    }
+
+    /**
+     * The best solution found so far, or null if there is none yet.
+     */
+    public T best() {
+        return best.get();
+    }
+
+    /**
+     * The progress of the process, from 0 when it starts to 1 when it is done.
+     */
+    public double progress() {
+        if (future.isDone() && !future.isCancelled()) {
+            return 1.0;
+        }
+
+        return Math.max(0.0, Math.min(1.0, progress.getAsDouble()));
+    }
+}
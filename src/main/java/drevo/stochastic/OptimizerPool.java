@@ -0,0 +1,408 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import drevo.stochastic.annealing.AnnealingContext;
+import drevo.stochastic.annealing.AnnealingFunction;
+import drevo.stochastic.annealing.SimulatedAnnealing;
+import drevo.stochastic.pso.PSO;
+import drevo.stochastic.pso.PSOContext;
+import drevo.stochastic.pso.Particle;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+
+/**
+ * <p>A service that runs many optimizations at the same time in a fixed number of worker threads, so
+ * the optimizations of a busy application do not compete for the threads of the machine. Every job,
+ * a SimulatedAnnealing or a PSO, runs in one worker from the start to the end: the particles of a PSO
+ * are evaluated sequentially in the worker, and not in the common ForkJoinPool.
+ * 
+ * <p>The admission of a job is controlled by:
+ * <pre>
+ * - priority
+ * The waiting jobs with the highest priority start first, the jobs with the same priority start in the
+ * order they were submitted.
+ * - queue limit
+ * How many jobs can wait for a worker. When the queue is full, submit throws a RejectedExecutionException,
+ * so the caller knows at once that the pool is overloaded.
+ * - budget
+ * The time, in milliseconds, a job can run in its worker. It is counted from the start of the job, not from
+ * its submission, so the time in the queue does not reduce the search. For a SimulatedAnnealing the budget
+ * is never longer than the deadline of its context.
+ * </pre>
+ * 
+ * <p>The handle of a job gives the best solution and the progress while it runs. Cancelling a waiting job
+ * removes it from the queue, cancelling a running job stops it in its next step and releases the worker.
+ * The metrics of the pool give the size of the queue and how long the jobs wait and run.
+ */
+public class OptimizerPool {
+    private final ThreadPoolExecutor executor;
+    private final int queueLimit;
+    private final StateChangeContext stateContext;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger admitted = new AtomicInteger(); // The jobs waiting or running, the only counter of the admission
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder runTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    /**
+     * Create a pool whose jobs deliver their state changes in the default StateChangeContext.
+     * 
+     * @param workers How many jobs run at the same time.
+     * @param queueLimit How many jobs can wait for a worker.
+     */
+    public OptimizerPool(int workers, int queueLimit) {
+        this(workers, queueLimit, new StateChangeContext());
+    }
+
+    /**
+     * Create a pool.
+     * 
+     * @param workers How many jobs run at the same time.
+     * @param queueLimit How many jobs can wait for a worker.
+     * @param stateContext How the state changes of the jobs are delivered to their handlers.
+     */
+    public OptimizerPool(int workers, int queueLimit, StateChangeContext stateContext) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must have non null positive values.");
+        }
+        if (queueLimit < 0) {
+            throw new IllegalArgumentException("Queue limit must have positive values.");
+        }
+        if (stateContext == null) {
+            throw new IllegalArgumentException("StateChangeContext cannot be null.");
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "optimizer-pool-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        this.queueLimit = queueLimit;
+        this.stateContext = stateContext;
+    }
+
+    /**
+     * Submit a SimulatedAnnealing with the default priority, limited by the deadline of its context.
+     * 
+     * @param ctx The context of the process.
+     * @param function The function using to find the optimum value.
+     * @return The handle of the job.
+     */
+    public Optimization<AnnealingFunction> submit(AnnealingContext ctx, AnnealingFunction function) {
+        return submit(ctx, function, null, 0, ctx.deadline());
+    }
+
+    /**
+     * Submit a SimulatedAnnealing.
+     * 
+     * @param ctx The context of the process.
+     * @param function The function using to find the optimum value.
+     * @param handler The handler of the state changes, or null to ignore them.
+     * @param priority The jobs with higher priority start first.
+     * @param budget How many milliseconds the job can run, never more than the deadline of the context.
+     * @return The handle of the job.
+     */
+    public Optimization<AnnealingFunction> submit(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler,
+            int priority, long budget) {
+        if (ctx == null || function == null) {
+            throw new IllegalArgumentException("AnnealingContext and function cannot be null.");
+        }
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Budget must have non null positive values.");
+        }
+
+        return submit(priority, worker -> SimulatedAnnealing.optimizeAsync(ctx, function, handler, stateContext,
+            new TimeBudget(Math.min(ctx.deadline(), budget)), worker));
+    }
+
+    /**
+     * Submit a PSO with the default priority, limited only by the iterations of its context.
+     * 
+     * @param <T> The type of the particles.
+     * @param ctx The context of the process.
+     * @param fitnessFunction The function to evaluate the fitness of the particles.
+     * @param swarm The initial swarm, whose particles are changed by the job.
+     * @return The handle of the job.
+     */
+    public <T extends Particle<T>> Optimization<T> submit(PSOContext ctx, Function<T, Double> fitnessFunction, List<T> swarm) {
+        return submit(ctx, fitnessFunction, swarm, null, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Submit a PSO. The swarm is evaluated when the job starts.
+     * 
+     * @param <T> The type of the particles.
+     * @param ctx The context of the process.
+     * @param fitnessFunction The function to evaluate the fitness of the particles.
+     * @param swarm The initial swarm, whose particles are changed by the job.
+     * @param handler The handler of the state changes, or null to ignore them.
+     * @param priority The jobs with higher priority start first.
+     * @param budget How many milliseconds the job can run.
+     * @return The handle of the job.
+     */
+    public <T extends Particle<T>> Optimization<T> submit(PSOContext ctx, Function<T, Double> fitnessFunction, List<T> swarm,
+            StateChangeHandler handler, int priority, long budget) {
+        if (ctx == null || fitnessFunction == null || swarm == null) {
+            throw new IllegalArgumentException("PSOContext, fitness function and swarm cannot be null.");
+        }
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Budget must have non null positive values.");
+        }
+
+        return submit(priority, worker -> new PSO<>(ctx, fitnessFunction, handler, stateContext, null, swarm)
+            .optimizeAsync(worker, new TimeBudget(budget)));
+    }
+
+    /**
+     * Put a job in the queue, if there is room for it.
+     */
+    private <T> Optimization<T> submit(int priority, Function<Executor, Optimization<T>> start) {
+        if (!admit()) {
+            rejected.increment();
+
+            throw new RejectedExecutionException("The queue of the pool is full.");
+        }
+
+        queued.incrementAndGet();
+
+        Job<T> job = new Job<>(priority, sequence.getAndIncrement(), start);
+
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            admitted.decrementAndGet();
+            rejected.increment();
+
+            throw e;
+        }
+
+        return job.handle;
+    }
+
+    /**
+     * Count a new job if the workers and the queue have room for it. The jobs waiting and running are a
+     * single counter, changed with a compare and set, so concurrent submissions never pass the limit.
+     */
+    private boolean admit() {
+        int limit = queueLimit + executor.getCorePoolSize();
+        int current;
+
+        do {
+            current = admitted.get();
+
+            if (current >= limit) {
+                return false;
+            }
+        } while (!admitted.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    /**
+     * How many jobs are waiting for a worker.
+     */
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * A snapshot of the metrics of the pool.
+     */
+    public Metrics metrics() {
+        long count = started.sum();
+        long done = completed.sum();
+
+        return new Metrics(queued.get(), running.get(), done, rejected.sum(),
+            count == 0 ? 0.0 : waitTime.sum() / 1e6 / count,
+            maxWaitTime.get() / 1e6,
+            done == 0 ? 0.0 : runTime.sum() / 1e6 / done);
+    }
+
+    /**
+     * Do not accept new jobs. The jobs already submitted still run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Wait until all the jobs end after a shutdown.
+     * 
+     * @param millis The longest time to wait, in milliseconds.
+     * @return true if all the jobs ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        return executor.awaitTermination(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The metrics of the pool, the times are in milliseconds:
+     * <pre>
+     * - queued: how many jobs are waiting for a worker.
+     * - running: how many jobs are running.
+     * - completed: how many jobs ended.
+     * - rejected: how many jobs were rejected because the queue was full or the pool was shut down.
+     * - meanWait, maxWait: the time the jobs waited in the queue before they started.
+     * - meanRun: the time the jobs ran in a worker.
+     * </pre>
+     */
+    public record Metrics(int queued, int running, long completed, long rejected, double meanWait, double maxWait, double meanRun) {
+        @Override
+        public String toString() {
+            return String.format(
+                "{Metrics: {'queued': %d, 'running': %d, 'completed': %d, 'rejected': %d, 'meanWait': %.3f, 'maxWait': %.3f, 'meanRun': %.3f}}",
+                queued, running, completed, rejected, meanWait, maxWait, meanRun);
+        }
+    }
+
+    /**
+     * A submitted optimization. Its handle exists since the submission, and follows the handle of the
+     * optimization once the job starts.
+     */
+    private final class Job<T> implements Runnable, Comparable<Job<?>> {
+        private final int priority;
+        private final long sequence;
+        private final long submitted;
+        private final Function<Executor, Optimization<T>> start;
+        private final Optimization<T> handle;
+        private volatile Optimization<T> optimization;
+
+        private Job(int priority, long sequence, Function<Executor, Optimization<T>> start) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submitted = System.nanoTime();
+            this.start = start;
+            this.handle = new Optimization<>(this::best, this::progress, this::stop);
+        }
+
+        @Override
+        public void run() {
+            long begin = System.nanoTime();
+
+            queued.decrementAndGet();
+            started.increment();
+            waitTime.add(begin - submitted);
+            maxWaitTime.accumulateAndGet(begin - submitted, Math::max);
+
+            if (handle.isCancelled()) {
+                admitted.decrementAndGet();
+
+                return;
+            }
+
+            running.incrementAndGet();
+
+            Throwable failure = null;
+
+            try {
+                // The optimization is started with an executor that only keeps its search, that runs here, in the worker.
+                Runnable[] search = new Runnable[1];
+
+                optimization = start.apply(task -> search[0] = task);
+
+                if (handle.isCancelled()) {
+                    optimization.cancel();
+                }
+
+                search[0].run();
+            } catch (Throwable e) {
+                // An Error of the function, like an AssertionError, fails the job and not the worker.
+                failure = e;
+            }
+
+            running.decrementAndGet();
+            admitted.decrementAndGet();
+            completed.increment();
+            runTime.add(System.nanoTime() - begin);
+
+            // The handle is completed after the metrics, so they already count the job when it is done.
+            if (failure != null) {
+                handle.future().completeExceptionally(failure);
+
+                // The JVM can not be trusted after these, the worker dies and the executor replaces it.
+                if (failure instanceof VirtualMachineError error) {
+                    throw error;
+                }
+            } else {
+                optimization.future().whenComplete((result, error) -> {
+                    if (error == null) {
+                        handle.future().complete(result);
+                    } else {
+                        handle.future().completeExceptionally(error);
+                    }
+                });
+            }
+        }
+
+        private T best() {
+            Optimization<T> current = optimization;
+
+            return current == null ? null : current.best();
+        }
+
+        private double progress() {
+            Optimization<T> current = optimization;
+
+            return current == null ? 0.0 : current.progress();
+        }
+
+        private void stop() {
+            if (executor.remove(this)) {
+                queued.decrementAndGet();
+                admitted.decrementAndGet();
+            } else {
+                Optimization<T> current = optimization;
+
+                if (current != null) {
+                    current.cancel();
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Job<?> other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>The source of the random numbers of an optimization. It derives independent streams from a master
+ * SplittableRandom, one for each worker of the optimization, like a particle, a chain or a replica, so the
+ * workers never share a generator: there is no contention between threads, and a stream always belongs to
+ * the same worker, whatever the thread that runs it.
+ * 
+ * <p>The streams are split in the order they are asked, so two sources with the same seed give the same
+ * streams when the workers are created in the same order. The seed of a source created without one is
+ * random, but can be read to repeat the run.
+ * 
+ * <p>A source is thread safe, its streams are not: each one must be used by one worker at a time.
+ */
+public class RandomSource {
+    private final long seed;
+    private final SplittableRandom master;
+
+    /**
+     * Create a source with a random seed.
+     */
+    public RandomSource() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Create a source with the given seed.
+     * 
+     * @param seed The seed of the master generator.
+     */
+    public RandomSource(long seed) {
+        this.seed = seed;
+        this.master = new SplittableRandom(seed);
+    }
+
+    /**
+     * The seed of the master generator.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * The next independent stream of the source.
+     */
+    public synchronized SplittableRandom split() {
+        return master.split();
+    }
+
+    /**
+     * The next independent stream of the source, as a java.util.Random, for the APIs that need one.
+     */
+    public Random random() {
+        return asRandom(split());
+    }
+
+    /**
+     * Adapt a generator to java.util.Random. The adapter is not thread safe, like the generator,
+     * and its seed cannot be set.
+     * 
+     * @param generator The generator of the numbers.
+     * @return A Random that draws its numbers from the generator.
+     */
+    public static Random asRandom(RandomGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("RandomGenerator cannot be null.");
+        }
+
+        return new RandomAdapter(generator);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{RandomSource: {'seed': %d}}", seed);
+    }
+
+    /**
+     * A java.util.Random over a RandomGenerator, without the atomic seed of Random.
+     */
+    private static final class RandomAdapter extends Random {
+        private static final long serialVersionUID = 1L;
+
+        private final transient RandomGenerator generator;
+
+        private RandomAdapter(RandomGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            // Called by the constructor of Random, before the generator exists.
+            if (generator != null) {
+                throw new UnsupportedOperationException("The seed of an adapted generator cannot be set.");
+            }
+        }
+
+        @Override
+        protected int next(int bits) {
+            return (int) (generator.nextLong() >>> (64 - bits));
+        }
+
+        @Override
+        public int nextInt() {
+            return generator.nextInt();
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return generator.nextInt(bound);
+        }
+
+        @Override
+        public long nextLong() {
+            return generator.nextLong();
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return generator.nextBoolean();
+        }
+
+        @Override
+        public float nextFloat() {
+            return generator.nextFloat();
+        }
+
+        @Override
+        public double nextDouble() {
+            return generator.nextDouble();
+        }
+
+        @Override
+        public double nextGaussian() {
+            return generator.nextGaussian();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+/**
+ * <p>A limit of time for one or many optimization processes. The time is measured with System.nanoTime(),
+ * that is monotonic, so a change of the clock of the system does not stop a process early or late.
+ * 
+ * <p>Reading the clock in each step of a cheap objective function costs a good part of the step, so a
+ * process asks a Checker, that only reads the clock every K steps. K is adjusted from the measured cost
+ * of the steps, so the clock is read about every {@value #CHECK_INTERVAL_NANOS} nanoseconds.
+ * 
+ * <p>The same budget can be shared by processes running at the same time. When one of them sees the end
+ * of the budget, or when expire() is called, all the others stop in their next step, without read the clock.
+ */
+public class TimeBudget {
+    public static final long CHECK_INTERVAL_NANOS = 100_000L;
+
+    private static final long MAX_STRIDE = 1L << 20;
+
+    private final long start;
+    private final long duration;
+    private volatile boolean expired;
+
+    /**
+     * Create a budget that starts now.
+     * 
+     * @param millis The time of the budget, in milliseconds.
+     */
+    public TimeBudget(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Time budget must have non null positive values.");
+        }
+
+        this.start = System.nanoTime();
+        this.duration = millis > Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : millis * 1_000_000L;
+        this.expired = false;
+    }
+
+    /**
+     * Check the clock to know if the budget is over.
+     */
+    public boolean isExpired() {
+        if (!expired && System.nanoTime() - start >= duration) {
+            expired = true;
+        }
+
+        return expired;
+    }
+
+    /**
+     * End the budget now, for all the processes that share it.
+     */
+    public void expire() {
+        expired = true;
+    }
+
+    /**
+     * The time left in the budget, in nanoseconds, zero when it is over.
+     */
+    public long remaining() {
+        return expired ? 0 : Math.max(0, duration - (System.nanoTime() - start));
+    }
+
+    /**
+     * The time since the budget started, in nanoseconds.
+     */
+    public long elapsed() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The fraction of the budget already used, from 0 to 1.
+     */
+    public double progress() {
+        return expired ? 1.0 : Math.min(1.0, (double) elapsed() / duration);
+    }
+
+    /**
+     * Create a checker for the steps of one process. A checker is not thread safe, each process needs its own.
+     */
+    public Checker checker() {
+        return new Checker();
+    }
+
+    /**
+     * Check the budget in the steps of a process, reading the clock only every K steps.
+     */
+    public final class Checker {
+        private long stride;
+        private long countdown;
+        private long lastCheck;
+
+        private Checker() {
+            this.stride = 1;
+            this.countdown = 1;
+            this.lastCheck = System.nanoTime();
+        }
+
+        /**
+         * Called in each step, true when the budget is over.
+         */
+        public boolean isExpired() {
+            if (expired) {
+                return true;
+            }
+
+            if (--countdown > 0) {
+                return false;
+            }
+
+            long now = System.nanoTime();
+            long left = duration - (now - start);
+
+            if (left <= 0) {
+                expired = true;
+                return true;
+            }
+
+            // The cost of a step, measured in the last stride, gives how many steps fit in the interval,
+            // but never more than the steps that fit in the time left.
+            double stepCost = Math.max(1.0, (double) (now - lastCheck) / stride);
+            long steps = (long) (Math.min(CHECK_INTERVAL_NANOS, left) / stepCost);
+
+            stride = Math.max(1, Math.min(MAX_STRIDE, steps));
+            countdown = stride;
+            lastCheck = now;
+
+            return false;
+        }
+
+        /**
+         * How many steps are done between two readings of the clock.
+         */
+        public long stride() {
+            return stride;
+        }
+    }
+}
@@ -16,7 +16,10 @@
  */
 package drevo.stochastic.annealing;
 
+import java.util.OptionalLong;
+
 import drevo.stochastic.ProblemType;
+import drevo.stochastic.RandomSource;
 
 /**
  * AnnealingContext is a registry with parameters for the functionality of the Simulated Annealing algorithm, they are:
@@ -37,6 +40,14 @@ import drevo.stochastic.ProblemType;
  * The algorithm will not stop in the first time variationThreshold is achived, the variationPersitence is about how many interations variationThreshold need be achived to stop algorithm.
  * - problemType
  * Define if to find the problem solution a maximization or minimization is required.
+ * - coolingSchedule
+ * How the temperature goes down from a temperature to the next one, geometric with coolingRate by default.
+ * - seed
+ * The seed of the random numbers of the process, empty by default for a random seed. With a seed, a process that ends
+ * by the final temperature or the early stop, and not by the deadline, repeats the same trajectory and result, as long
+ * as the function draws its random numbers from the generator given to reconfigure, move or propose.
+ * The chains of MultiStartAnnealing share their best solutions at times that depend on the threads, so only
+ * SimulatedAnnealing and ParallelTempering are repeated exactly.
  * </pre>
  * 
  * Together with an implementation of AnnealingFunction, they provide all information needed to run the simulation.
@@ -50,12 +61,29 @@ public class AnnealingContext {
     public final double variationThreshold;
     public final long variationPersitence;
     public final ProblemType problemType;
+    public final CoolingSchedule coolingSchedule;
+    public final OptionalLong seed;
 
     public AnnealingContext(ProblemType problemType) {
         this(10000, 0.1, 0.01, 150000, 300, -1, -1, problemType);
     }
 
     public AnnealingContext(double initialTemperature, double finalTemperature, double coolingRate, int steps, long deadline, double variationThreshold, int variationPersitence, ProblemType problemType) {
+        this(initialTemperature, finalTemperature, coolingRate, steps, deadline, variationThreshold, variationPersitence, problemType, CoolingSchedule.geometric());
+    }
+
+    public AnnealingContext(double initialTemperature, double finalTemperature, double coolingRate, int steps, long deadline, double variationThreshold, int variationPersitence, ProblemType problemType,
+            CoolingSchedule coolingSchedule) {
+        this(initialTemperature, finalTemperature, coolingRate, steps, deadline, variationThreshold, variationPersitence, problemType, coolingSchedule, OptionalLong.empty());
+    }
+
+    public AnnealingContext(double initialTemperature, double finalTemperature, double coolingRate, int steps, long deadline, double variationThreshold, int variationPersitence, ProblemType problemType,
+            CoolingSchedule coolingSchedule, long seed) {
+        this(initialTemperature, finalTemperature, coolingRate, steps, deadline, variationThreshold, variationPersitence, problemType, coolingSchedule, OptionalLong.of(seed));
+    }
+
+    AnnealingContext(double initialTemperature, double finalTemperature, double coolingRate, int steps, long deadline, double variationThreshold, int variationPersitence, ProblemType problemType,
+            CoolingSchedule coolingSchedule, OptionalLong seed) {
         if(initialTemperature < 0.0 || finalTemperature < 0.0) {
             throw new IllegalArgumentException("Temperatures must have positive values.");
         }
@@ -76,6 +104,10 @@ public class AnnealingContext {
             throw new IllegalArgumentException("Deadline must have non null positive values.");
         }
 
+        if(coolingSchedule == null) {
+            throw new IllegalArgumentException("Cooling schedule cannot be null.");
+        }
+
         this.initialTemperature = initialTemperature;
         this.finalTemperature = finalTemperature;
         this.coolingRate = coolingRate;
@@ -84,6 +116,8 @@ public class AnnealingContext {
         this.variationThreshold = variationThreshold; 
         this.variationPersitence = variationPersitence;
         this.problemType = problemType;
+        this.coolingSchedule = coolingSchedule;
+        this.seed = seed;
     }
 
     public double initialTemperature() { return initialTemperature; }
@@ -102,6 +136,17 @@ public class AnnealingContext {
 
     public ProblemType problemType() { return problemType; }
 
+    public CoolingSchedule coolingSchedule() { return coolingSchedule; }
+
+    public OptionalLong seed() { return seed; }
+
+    /**
+     * A new source of random numbers for a process, with the seed of the context if it has one.
+     */
+    public RandomSource randomSource() {
+        return seed.isPresent() ? new RandomSource(seed.getAsLong()) : new RandomSource();
+    }
+
     @Override
     public String toString() {
         return "{AnnealingContext: {" + 
@@ -112,7 +157,9 @@ public class AnnealingContext {
                     "', 'deadline': '" + deadline + 
                     "', 'variationThreshold': '" + variationThreshold +
                     "', 'variationPersitence': '" + variationPersitence +
-                    "', 'problemType': '" + problemType + "'" +
+                    "', 'problemType': '" + problemType +
+                    "', 'coolingSchedule': '" + coolingSchedule +
+                    "', 'seed': '" + (seed.isPresent() ? seed.getAsLong() : "random") + "'" +
                 "}";
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import drevo.stochastic.state.ReusableStateChange;
+
+/**
+ * The reusable version of AnnealingState. SimulatedAnnealing fills the same instances during
+ * all the cooling process, so a handler must read the values during the handle call or keep
+ * a {@link #snapshot()}.
+ */
+public class AnnealingEvent implements ReusableStateChange<AnnealingEvent> {
+    private double temperature;
+    private double initialEnergy;
+    private double finalEnergy;
+    private double delta;
+    private double probability;
+    private double bestValue;
+    private AnnealingContext context;
+    private int currentStep;
+    private boolean accepted;
+    private AnnealingMessage code;
+
+    /**
+     * Fill the event with the values of the cooling process.
+     */
+    public AnnealingEvent set(double temperature, double initialEnergy, double finalEnergy, double delta, double probability,
+            double bestValue, AnnealingContext context, int currentStep, boolean accepted, AnnealingMessage code) {
+        this.temperature = temperature;
+        this.initialEnergy = initialEnergy;
+        this.finalEnergy = finalEnergy;
+        this.delta = delta;
+        this.probability = probability;
+        this.bestValue = bestValue;
+        this.context = context;
+        this.currentStep = currentStep;
+        this.accepted = accepted;
+        this.code = code;
+
+        return this;
+    }
+
+    public double temperature() { return temperature; }
+
+    public double initialEnergy() { return initialEnergy; }
+
+    public double finalEnergy() { return finalEnergy; }
+
+    public double delta() { return delta; }
+
+    public double probability() { return probability; }
+
+    public double bestValue() { return bestValue; }
+
+    public AnnealingContext context() { return context; }
+
+    public int currentStep() { return currentStep; }
+
+    public boolean accepted() { return accepted; }
+
+    public AnnealingMessage code() { return code; }
+
+    /**
+     * The text of the message, rendered in each call.
+     */
+    public String message() { return code.render(this); }
+
+    @Override
+    public void assign(AnnealingEvent other) {
+        set(other.temperature, other.initialEnergy, other.finalEnergy, other.delta, other.probability,
+            other.bestValue, other.context, other.currentStep, other.accepted, other.code);
+    }
+
+    @Override
+    public AnnealingState snapshot() {
+        return new AnnealingState(temperature, initialEnergy, finalEnergy, delta, probability,
+            bestValue, context, currentStep, accepted, message());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
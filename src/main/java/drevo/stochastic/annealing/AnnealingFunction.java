@@ -16,6 +16,8 @@
  */
 package drevo.stochastic.annealing;
 
+import java.util.random.RandomGenerator;
+
 /**
  * AnnealingFunction is the interface that must be implemented to represents a 
  * particular problem, it implements the objective function and must have the 
@@ -49,6 +51,17 @@ public interface AnnealingFunction {
      */
     void reconfigure();
 
+    /**
+     * Reconfigure with the random numbers of the process. SimulatedAnnealing always calls this method, with its
+     * own stream of random numbers, so a function that draws from the random instead of its own generator is
+     * repeated exactly by a process with a seed. By default it calls reconfigure().
+     * 
+     * @param random The stream of random numbers of the process.
+     */
+    default void reconfigure(RandomGenerator random) {
+        reconfigure();
+    }
+
     /**
      * Copy the value and states from another instance, that could representing another point in the solution domain.
      */
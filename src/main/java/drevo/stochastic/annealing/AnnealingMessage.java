@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+/**
+ * The messages of the cooling process. The text of a message is only rendered when it is
+ * asked, from the values of the AnnealingEvent it belongs.
+ */
+public enum AnnealingMessage {
+    START, INVALID_CANDIDATE, START_VALUE, ACCEPTED, EARLY_STOP_VARIATION, EARLY_STOP_TIME, INVALID_SOLUTION, FINISH;
+
+    /**
+     * Render the text of the message.
+     *
+     * @param event The event with the values of the message.
+     * @return The text of the message.
+     */
+    public String render(AnnealingEvent event) {
+        switch (this) {
+            case START:
+                return String.format("Start cooling process with context: %s", event.context());
+            case INVALID_CANDIDATE:
+                return "The solution candidate sent to cooling process is invalid.";
+            case START_VALUE:
+                return String.format("Start with value: %f", event.context().problemType().valueOf() * event.bestValue());
+            case ACCEPTED:
+                return "Accepted configuration";
+            case EARLY_STOP_VARIATION:
+                return "Early stop due to variation threshold";
+            case EARLY_STOP_TIME:
+                return "Early stop due to time limit";
+            case INVALID_SOLUTION:
+                return "The founded solution in cooling process is invalid.";
+            default:
+                return String.format("Finising cooling process with best value: %.5f", event.bestValue());
+        }
+    }
+}
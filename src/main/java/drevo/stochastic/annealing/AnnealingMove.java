@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+/**
+ * A small change of the configuration of a ReversibleAnnealingFunction, that can be applied and undone.
+ * The cooling process can keep a move after it was applied, to undo it later, so each call of
+ * ReversibleAnnealingFunction.move() must return a move that does not share its state with the
+ * moves that are kept: the last ones applied and not undone, never more than 1024. A move that was
+ * undone is not kept, so the function can reuse it.
+ */
+public interface AnnealingMove {
+    /**
+     * The change of compute() caused by the move, when the function knows it without compute all the
+     * objective function. It is read after apply().
+     * 
+     * @return The change of compute(), or Double.NaN if compute() must be called.
+     */
+    default double delta() {
+        return Double.NaN;
+    }
+
+    /**
+     * Change the configuration of the function. It is called again after undo() when the process redo the move.
+     */
+    void apply();
+
+    /**
+     * Restore the configuration of the function before apply(), in a time proportional to the size of the move.
+     */
+    void undo();
+}
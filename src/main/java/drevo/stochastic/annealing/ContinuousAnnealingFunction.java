@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import drevo.math.Interval;
+
+/**
+ * <p>A base for the functions of continuous problems, where the solution is a vector of doubles and each
+ * component has its own bounds, that are never violated. The vector is kept in a double[], so reading and changing a component
+ * does not box the value, and assign() copies the vector with System.arraycopy, without allocation.
+ * 
+ * <p>A subclass only implements compute(double[]) and copy(), usually with the copy constructor:
+ * 
+ *  class SphereFunction extends ContinuousAnnealingFunction {
+ *      public SphereFunction(int dimention) {
+ *          super(dimention, new Interval(-10, 10));
+ *      }
+ *  
+ *      private SphereFunction(SphereFunction other) {
+ *          super(other);
+ *      }
+ *  
+ *      @Override
+ *      public double compute(double[] x) {
+ *          double sum = 0.0;
+ *          for (double value : x) {
+ *              sum += value * value;
+ *          }
+ *          return sum;
+ *      }
+ *  
+ *      @Override
+ *      public AnnealingFunction copy() {
+ *          return new SphereFunction(this);
+ *      }
+ *  }
+ * 
+ * <p>A move changes one component with a step of random scale, from all the length of its interval
+ * to a millionth of it, so the same function explores the domain and refines a solution. The moves are
+ * undone when rejected, so the function is cooled without copies, and a subclass can override
+ * delta(int, double, double) when the objective function is separable to avoid compute all of it.
+ * The moves come from a ring with a slot for each move the process can keep, so the steps do not
+ * allocate: a rejected move is undone and its slot is reused by the next move.
+ */
+public abstract class ContinuousAnnealingFunction implements ReversibleAnnealingFunction {
+    private static final double MIN_SCALE = 1e-6;
+
+    private final double[] x;
+    private final double[] low;
+    private final double[] upper;
+
+    private ComponentMove[] moves;
+    private int cursor;
+
+    /**
+     * Create the function with a component for each interval, starting in the value of the interval.
+     * 
+     * @param bounds The bounds of each component.
+     */
+    protected ContinuousAnnealingFunction(Interval... bounds) {
+        if (bounds == null || bounds.length == 0) {
+            throw new IllegalArgumentException("Bounds must have at least one interval.");
+        }
+
+        x = new double[bounds.length];
+        low = new double[bounds.length];
+        upper = new double[bounds.length];
+
+        for (int i = 0; i < bounds.length; i++) {
+            low[i] = bounds[i].low();
+            upper[i] = bounds[i].upper();
+            x[i] = clamp(i, bounds[i].value());
+        }
+    }
+
+    /**
+     * Create the function with all the components in the same bounds, starting in random values.
+     * 
+     * @param dimention How many components has the vector.
+     * @param bounds The bounds of all the components.
+     */
+    protected ContinuousAnnealingFunction(int dimention, Interval bounds) {
+        if (dimention <= 0) {
+            throw new IllegalArgumentException("Dimention must have non null positive values.");
+        }
+
+        x = new double[dimention];
+        low = new double[dimention];
+        upper = new double[dimention];
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        for (int i = 0; i < dimention; i++) {
+            low[i] = bounds.low();
+            upper[i] = bounds.upper();
+            x[i] = low[i] + rnd.nextDouble() * (upper[i] - low[i]);
+        }
+    }
+
+    /**
+     * Create a copy of other function, sharing its bounds.
+     */
+    protected ContinuousAnnealingFunction(ContinuousAnnealingFunction other) {
+        x = other.x.clone();
+        low = other.low;
+        upper = other.upper;
+    }
+
+    /**
+     * Compute the objective function in the vector.
+     */
+    public abstract double compute(double[] x);
+
+    /**
+     * The change of compute() when the component i changes from old to value, or Double.NaN when it must be
+     * computed. A separable function, like a sum of terms of each component, can return the change of one term.
+     */
+    protected double delta(int i, double old, double value) {
+        return Double.NaN;
+    }
+
+    @Override
+    public double compute() {
+        return compute(x);
+    }
+
+    public int dimention() {
+        return x.length;
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    /**
+     * Change the component i to the value, limited by its bounds.
+     */
+    public void x(int i, double value) {
+        x[i] = clamp(i, value);
+    }
+
+    public double low(int i) {
+        return low[i];
+    }
+
+    public double upper(int i) {
+        return upper[i];
+    }
+
+    /**
+     * A copy of the vector.
+     */
+    public double[] values() {
+        return x.clone();
+    }
+
+    private double clamp(int i, double value) {
+        if (value < low[i]) {
+            return low[i];
+        } else if (value > upper[i]) {
+            return upper[i];
+        }
+
+        return value;
+    }
+
+    /**
+     * A value near the component i, with a step of random scale.
+     */
+    private double neighbour(RandomGenerator rnd, int i) {
+        double scale = (upper[i] - low[i]) * Math.pow(MIN_SCALE, rnd.nextDouble());
+
+        return clamp(i, x[i] + (2 * rnd.nextDouble() - 1) * scale);
+    }
+
+    @Override
+    public void reconfigure() {
+        reconfigure(ThreadLocalRandom.current());
+    }
+
+    @Override
+    public void reconfigure(RandomGenerator rnd) {
+        int i = rnd.nextInt(x.length);
+
+        x[i] = neighbour(rnd, i);
+    }
+
+    @Override
+    public AnnealingMove move() {
+        return move(ThreadLocalRandom.current());
+    }
+
+    @Override
+    public AnnealingMove move(RandomGenerator rnd) {
+        int i = rnd.nextInt(x.length);
+
+        return nextMove().set(i, x[i], neighbour(rnd, i));
+    }
+
+    /**
+     * The slot of the next move. The ring is created with the first move, so the copies of the function that
+     * are never cooled do not have one. The last slot is reused when its move was undone, otherwise the ring
+     * goes to the oldest slot, that is not kept by the process anymore.
+     */
+    private ComponentMove nextMove() {
+        if (moves == null) {
+            moves = new ComponentMove[SimulatedAnnealing.JOURNAL_LIMIT + 1];
+        } else if (moves[cursor] != null && !moves[cursor].undone) {
+            cursor = (cursor + 1) % moves.length;
+        }
+
+        if (moves[cursor] == null) {
+            moves[cursor] = new ComponentMove();
+        }
+
+        return moves[cursor];
+    }
+
+    /**
+     * The change of one component of the vector.
+     */
+    private class ComponentMove implements AnnealingMove {
+        private int i;
+        private double old;
+        private double value;
+        private boolean undone;
+
+        private ComponentMove set(int i, double old, double value) {
+            this.i = i;
+            this.old = old;
+            this.value = value;
+            this.undone = false;
+
+            return this;
+        }
+
+        @Override
+        public double delta() {
+            return ContinuousAnnealingFunction.this.delta(i, old, value);
+        }
+
+        @Override
+        public void apply() {
+            x[i] = value;
+            undone = false;
+        }
+
+        @Override
+        public void undo() {
+            x[i] = old;
+            undone = true;
+        }
+    }
+
+    @Override
+    public void assign(AnnealingFunction f) {
+        if (f instanceof ContinuousAnnealingFunction other && other.getClass() == getClass() && other.x.length == x.length) {
+            System.arraycopy(other.x, 0, x, 0, x.length);
+        }
+    }
+
+    /**
+     * The components are always kept in their bounds, so the configuration is valid. It is called in each step
+     * of the cooling process, so a subclass with other restrictions must check them fast.
+     */
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+/**
+ * CoolingSchedule define how the temperature goes down in the cooling process, they are:
+ * <pre>
+ * - geometric
+ * T * (1 - coolingRate), the classic schedule and the default one.
+ * - linear
+ * T - coolingRate * (initialTemperature - finalTemperature), so the process has 1/coolingRate temperatures.
+ * - logarithmic
+ * initialTemperature / (1 + ln(1 + k)) in the temperature k, very slow, usually stopped by the deadline.
+ * - lundyMees
+ * T / (1 + beta * T), fast in the high temperatures and slow in the low ones.
+ * - adaptive
+ * Geometric, but the rate is changed by the acceptance ratio of the last temperature, faster when more
+ * configurations than the target are accepted and slower when less.
+ * - reheating
+ * Another schedule that raises the temperature when the best solution does not improve for some temperatures,
+ * never above the initial temperature, where it cools with the other schedule.
+ * - adaptiveSteps
+ * Another schedule that leaves a temperature after some accepted configurations, without try all the steps.
+ * </pre>
+ *
+ * A schedule does not keep state, what it needs of the process is sent in each call, so the same schedule
+ * can be used by many processes at the same time.
+ */
+public interface CoolingSchedule {
+    /**
+     * Compute the next temperature of the process.
+     * 
+     * @param ctx The context of the process.
+     * @param temperature The current temperature.
+     * @param level How many temperatures the process has visited, including the current one.
+     * @param acceptance The ratio of the valid configurations accepted in the current temperature.
+     * @param stagnation How many temperatures have passed since the best solution improved or the temperature was raised.
+     * @return The next temperature.
+     */
+    double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation);
+
+    /**
+     * How many accepted configurations end a temperature before all the steps are tried.
+     */
+    default int acceptances() {
+        return Integer.MAX_VALUE;
+    }
+
+    static CoolingSchedule geometric() {
+        return new Geometric();
+    }
+
+    static CoolingSchedule linear() {
+        return new Linear();
+    }
+
+    static CoolingSchedule logarithmic() {
+        return new Logarithmic();
+    }
+
+    static CoolingSchedule lundyMees(double beta) {
+        return new LundyMees(beta);
+    }
+
+    static CoolingSchedule adaptive(double targetAcceptance) {
+        return new Adaptive(targetAcceptance);
+    }
+
+    static CoolingSchedule reheating(CoolingSchedule schedule, int patience, double factor) {
+        return new Reheating(schedule, patience, factor);
+    }
+
+    static CoolingSchedule adaptiveSteps(CoolingSchedule schedule, int acceptances) {
+        return new AdaptiveSteps(schedule, acceptances);
+    }
+
+    record Geometric() implements CoolingSchedule {
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            return temperature * (1 - ctx.coolingRate());
+        }
+    }
+
+    record Linear() implements CoolingSchedule {
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            return temperature - ctx.coolingRate() * (ctx.initialTemperature() - ctx.finalTemperature());
+        }
+    }
+
+    record Logarithmic() implements CoolingSchedule {
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            return ctx.initialTemperature() / (1 + Math.log(1 + level));
+        }
+    }
+
+    record LundyMees(double beta) implements CoolingSchedule {
+        public LundyMees {
+            if (beta <= 0.0) {
+                throw new IllegalArgumentException("Beta must have non null positive values.");
+            }
+        }
+
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            return temperature / (1 + beta * temperature);
+        }
+    }
+
+    record Adaptive(double targetAcceptance) implements CoolingSchedule {
+        public Adaptive {
+            if (targetAcceptance <= 0.0 || targetAcceptance >= 1.0) {
+                throw new IllegalArgumentException("Target acceptance must be between 0 and 1.");
+            }
+        }
+
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            double rate = ctx.coolingRate() * acceptance / targetAcceptance;
+
+            return temperature * (1 - Math.min(0.5, Math.max(ctx.coolingRate() / 10, rate)));
+        }
+    }
+
+    record Reheating(CoolingSchedule schedule, int patience, double factor) implements CoolingSchedule {
+        public Reheating {
+            if (schedule == null) {
+                throw new IllegalArgumentException("Cooling schedule cannot be null.");
+            }
+
+            if (patience <= 0) {
+                throw new IllegalArgumentException("Patience must have non null positive values.");
+            }
+
+            if (factor <= 1.0) {
+                throw new IllegalArgumentException("Reheating factor must be greater than 1.");
+            }
+        }
+
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            if (stagnation >= patience) {
+                double reheated = Math.min(ctx.initialTemperature(), temperature * factor);
+
+                // Only a raised temperature resets the stagnation, so in the initial temperature the process cools.
+                if (reheated > temperature) {
+                    return reheated;
+                }
+            }
+
+            return schedule.next(ctx, temperature, level, acceptance, stagnation);
+        }
+
+        @Override
+        public int acceptances() {
+            return schedule.acceptances();
+        }
+    }
+
+    record AdaptiveSteps(CoolingSchedule schedule, int acceptances) implements CoolingSchedule {
+        public AdaptiveSteps {
+            if (schedule == null) {
+                throw new IllegalArgumentException("Cooling schedule cannot be null.");
+            }
+
+            if (acceptances <= 0) {
+                throw new IllegalArgumentException("Acceptances must have non null positive values.");
+            }
+        }
+
+        @Override
+        public double next(AnnealingContext ctx, double temperature, int level, double acceptance, int stagnation) {
+            return schedule.next(ctx, temperature, level, acceptance, stagnation);
+        }
+    }
+}
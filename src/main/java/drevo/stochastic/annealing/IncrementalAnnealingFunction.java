@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>An AnnealingFunction that evaluates a change of its configuration without computing all the
+ * objective function again. SimulatedAnnealing uses these methods, instead of reconfigure() and
+ * compute(), when the function implements this interface.
+ * 
+ * <p>In each step the cooling process asks for a move with propose(), the function chooses a small
+ * change of its configuration, like swap two cities of a tour or put one item in the knapsack, and
+ * returns how much compute() would change with it, without apply it. Then the process calls commit()
+ * to apply the move, or reject() to forget it. A TSP tour length with a 2-opt move, for example,
+ * is updated with 4 distances instead of n.
+ * 
+ * <p>compute() is still called a few times, when the process starts and once for each temperature,
+ * to avoid the accumulation of rounding errors of the deltas.
+ */
+public interface IncrementalAnnealingFunction extends AnnealingFunction {
+    /**
+     * Choose a move of the configuration, without apply it.
+     * 
+     * @return The change of compute() if the move is applied, or Double.NaN if the move leads to an invalid configuration.
+     */
+    double propose();
+
+    /**
+     * Choose a move with the random numbers of the process, see {@link AnnealingFunction#reconfigure(RandomGenerator)}.
+     * By default it calls propose().
+     * 
+     * @param random The stream of random numbers of the process.
+     * @return The change of compute() if the move is applied, or Double.NaN if the move leads to an invalid configuration.
+     */
+    default double propose(RandomGenerator random) {
+        return propose();
+    }
+
+    /**
+     * Apply the last proposed move.
+     */
+    void commit();
+
+    /**
+     * Forget the last proposed move, the configuration stays as before propose().
+     */
+    void reject();
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+
+/**
+ * <p>Run many independent cooling processes of SimulatedAnnealing, the chains, at the same time in
+ * a ForkJoinPool. Every chain starts from a copy of the function and uses the same context, the
+ * deadline is shared by all of them, counted from the call of optimize.
+ *
+ * <p>At the end of each temperature a chain shares its best solution with the others and takes
+ * the shared one if it is better, so the search goes on from the best point found so far.
+ * When there are more chains than threads in the pool, the idle threads steal the waiting chains.
+ *
+ * <p>Every chain publishes its states in its own listener, but all of them call the same handler,
+ * so the handler must be thread safe.
+ */
+public class MultiStartAnnealing {
+    private MultiStartAnnealing() {
+    }
+
+    /**
+     * Run the chains in the common ForkJoinPool without a handle for internal state changes.
+     * 
+     * @param ctx The context of the processes.
+     * @param function The function using to find the optimum value.
+     * @param chains How many cooling processes to run.
+     * @return The better value founded by all the chains.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, int chains) {
+        return optimize(ctx, function, null, chains);
+    }
+
+    /**
+     * Run the chains in the common ForkJoinPool.
+     * 
+     * @param ctx The context of the processes.
+     * @param function The function using to find the optimum value.
+     * @param handler A thread safe handler for the states of all the chains.
+     * @param chains How many cooling processes to run.
+     * @return The better value founded by all the chains.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, int chains) {
+        return optimize(ctx, function, handler, new StateChangeContext(), chains, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the chains in the pool.
+     * 
+     * @param ctx The context of the processes.
+     * @param function The function using to find the optimum value.
+     * @param handler A thread safe handler for the states of all the chains.
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param chains How many cooling processes to run.
+     * @param pool Where the chains run.
+     * @return The better value founded by all the chains.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler,
+            StateChangeContext stateContext, int chains, ForkJoinPool pool) {
+        if (chains <= 0) {
+            throw new IllegalArgumentException("Chains must have non null positive values.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("ForkJoinPool cannot be null.");
+        }
+
+        TimeBudget budget = new TimeBudget(ctx.deadline());
+        SharedBest shared = new SharedBest();
+        RandomSource source = ctx.randomSource();
+
+        List<AnnealingFunction> results = pool.invoke(new RecursiveTask<List<AnnealingFunction>>() {
+            @Override
+            protected List<AnnealingFunction> compute() {
+                List<ForkJoinTask<AnnealingFunction>> tasks = new ArrayList<>(chains);
+
+                for (int i = 0; i < chains; i++) {
+                    AnnealingFunction start = function.copy();
+                    RandomGenerator rand = source.split();
+
+                    tasks.add(ForkJoinTask.adapt(() -> SimulatedAnnealing.optimize(ctx, start, handler, stateContext, budget, shared, rand)));
+                }
+
+                List<AnnealingFunction> chainResults = new ArrayList<>(chains);
+
+                for (ForkJoinTask<AnnealingFunction> task : ForkJoinTask.invokeAll(tasks)) {
+                    chainResults.add(task.join());
+                }
+
+                return chainResults;
+            }
+        });
+
+        return choose(ctx, results);
+    }
+
+    /**
+     * Choose the better of the results of the chains, preferring the valid ones.
+     */
+    private static AnnealingFunction choose(AnnealingContext ctx, List<AnnealingFunction> results) {
+        AnnealingFunction best = null;
+        double bestValue = Double.POSITIVE_INFINITY;
+        boolean bestValid = false;
+
+        for (AnnealingFunction result : results) {
+            double value = ctx.problemType().valueOf() * result.compute();
+            boolean valid = result.isValid();
+
+            if (best == null || (valid && !bestValid) || (valid == bestValid && value < bestValue)) {
+                best = result;
+                bestValue = value;
+                bestValid = valid;
+            }
+        }
+
+        return best;
+    }
+}
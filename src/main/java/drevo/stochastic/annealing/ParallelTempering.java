@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+import drevo.stochastic.state.StateChangeListener;
+
+/**
+ * <p>Parallel tempering, or replica exchange, runs many replicas of the function at the same time, each one
+ * at a fixed temperature of a ladder that goes from the initial to the final temperature of the context
+ * in geometric progression. The hot replicas walk freely over the domain and the cold ones refine the
+ * solutions they receive.
+ *
+ * <p>In each round every replica tries ctx.steps() configurations at its temperature with the same Metropolis
+ * criterion of SimulatedAnnealing, each replica in a thread of the ForkJoinPool. At the end of the round the
+ * neighbours of the ladder try to exchange their states with probability
+ * min(1, exp((1/kT_i - 1/kT_j) * (E_i - E_j))), so a good solution found by a hot replica goes down the ladder.
+ * The even pairs try in a round and the odd ones in the next.
+ *
+ * <p>The process runs as many rounds as the temperatures a cooling process of the context would visit,
+ * or until the deadline. All the states are published by the thread that exchange the replicas, so the
+ * handler does not need be thread safe.
+ */
+public class ParallelTempering {
+    private final AnnealingContext ctx;
+    private final StateChangeListener listener;
+    private final Replica[] replicas;
+
+    private AnnealingFunction best;
+    private double bestValue;
+    private final TimeBudget budget;
+    private final RandomGenerator rand; // The exchanges are only done by the coordinating thread
+
+    /**
+     * A replica of the function in a fixed temperature of the ladder.
+     */
+    private static class Replica {
+        private final double temperature;
+
+        private AnnealingFunction current;
+        private AnnealingFunction candidate;
+        private double energy;
+
+        private AnnealingFunction best;
+        private double bestValue;
+
+        // The replica is only swept by one thread at a time, so it keeps its own checker and random numbers.
+        private final TimeBudget.Checker checker;
+        private final RandomGenerator rand;
+
+        private Replica(double temperature, AnnealingFunction function, double energy, TimeBudget budget, RandomGenerator rand) {
+            this.temperature = temperature;
+            this.checker = budget.checker();
+            this.rand = rand;
+            this.current = function.copy();
+            this.candidate = function.copy();
+            this.energy = energy;
+            this.best = function.copy();
+            this.bestValue = energy;
+        }
+    }
+
+    private ParallelTempering(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, StateChangeContext stateContext, int replicas) {
+        this.ctx = ctx;
+
+        listener = new StateChangeListener(handler, stateContext, AnnealingEvent::new);
+
+        best = function.copy();
+        bestValue = ctx.problemType().valueOf() * best.compute();
+        budget = new TimeBudget(ctx.deadline());
+
+        RandomSource source = ctx.randomSource();
+
+        rand = source.split();
+        this.replicas = new Replica[replicas];
+
+        for (int i = 0; i < replicas; i++) {
+            this.replicas[i] = new Replica(temperature(ctx, i, replicas), function, bestValue, budget, source.split());
+        }
+
+        // The listener only starts when the function was computed, a failure before would never finish it.
+        listener.start();
+    }
+
+    /**
+     * Run the replicas in the common ForkJoinPool without a handle for internal state changes.
+     * 
+     * @param ctx The context of the process.
+     * @param function The function using to find the optimum value.
+     * @param replicas How many temperatures has the ladder.
+     * @return The better value founded by all the replicas.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, int replicas) {
+        return optimize(ctx, function, null, replicas);
+    }
+
+    /**
+     * Run the replicas in the common ForkJoinPool.
+     * 
+     * @param ctx The context of the process.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param replicas How many temperatures has the ladder.
+     * @return The better value founded by all the replicas.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, int replicas) {
+        return optimize(ctx, function, handler, new StateChangeContext(), replicas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the replicas in the pool.
+     * 
+     * @param ctx The context of the process.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param replicas How many temperatures has the ladder.
+     * @param pool Where the replicas run.
+     * @return The better value founded by all the replicas.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler,
+            StateChangeContext stateContext, int replicas, ForkJoinPool pool) {
+        if (replicas < 2) {
+            throw new IllegalArgumentException("Replicas must be at least two.");
+        }
+
+        if (ctx.finalTemperature() <= 0.0) {
+            throw new IllegalArgumentException("The final temperature must be positive to build the ladder of temperatures.");
+        }
+
+        if (pool == null) {
+            throw new IllegalArgumentException("ForkJoinPool cannot be null.");
+        }
+
+        ParallelTempering pt = new ParallelTempering(ctx, function, handler, stateContext, replicas);
+
+        try {
+            return pool.invoke(new RecursiveTask<AnnealingFunction>() {
+                @Override
+                protected AnnealingFunction compute() {
+                    return temper(pt, function);
+                }
+            });
+        } finally {
+            finish(pt);
+        }
+    }
+
+    /**
+     * The temperature of the replica in the ladder, from the initial temperature in the first replica to the final
+     * temperature in the last one.
+     */
+    static double temperature(AnnealingContext ctx, int replica, int replicas) {
+        return ctx.initialTemperature() * Math.pow(ctx.finalTemperature() / ctx.initialTemperature(), (double) replica / (replicas - 1));
+    }
+
+    /**
+     * How many temperatures a cooling process of the context would visit.
+     */
+    static long rounds(AnnealingContext ctx) {
+        if (ctx.initialTemperature() <= ctx.finalTemperature()) {
+            return 0;
+        }
+
+        return (long) Math.ceil(Math.log(ctx.finalTemperature() / ctx.initialTemperature()) / Math.log(1 - ctx.coolingRate()));
+    }
+
+    /**
+     * Run the rounds of the replicas and exchanges.
+     * 
+     * @param pt The ParallelTempering object for this call of optimize method.
+     * @param function The function sent to the process.
+     * @return The better value founded during the process.
+     */
+    private static AnnealingFunction temper(ParallelTempering pt, AnnealingFunction function) {
+        notifyState(pt, 0, 0, 0, 0, 0, 0, 0, false, AnnealingMessage.START);
+
+        if(!function.isValid()) {
+            notifyState(pt, 0, 0, 0, 0, 0, 0, 0, false, AnnealingMessage.INVALID_CANDIDATE);
+
+            return function.copy();
+        }
+
+        notifyState(pt, 0, 0, 0, 0, 0, pt.bestValue, 0, false, AnnealingMessage.START_VALUE);
+
+        List<ForkJoinTask<?>> sweeps = new ArrayList<>(pt.replicas.length);
+
+        for (Replica replica : pt.replicas) {
+            sweeps.add(ForkJoinTask.adapt(() -> sweep(pt, replica)));
+        }
+
+        long rounds = rounds(pt.ctx);
+
+        for (int round = 0; round < rounds && !pt.budget.isExpired(); round++) {
+            for (ForkJoinTask<?> sweep : sweeps) {
+                sweep.reinitialize();
+            }
+
+            ForkJoinTask.invokeAll(sweeps);
+
+            collect(pt, round);
+            exchange(pt, round % 2);
+        }
+
+        if (pt.budget.isExpired()) {
+            notifyState(pt, 0, 0, 0, 0, 0, pt.bestValue, 0, false, AnnealingMessage.EARLY_STOP_TIME);
+        }
+
+        if(!pt.best.isValid()) {
+            notifyState(pt, 0, 0, 0, 0, 0, pt.bestValue, 0, false, AnnealingMessage.INVALID_SOLUTION);
+        }
+
+        return pt.best;
+    }
+
+    /**
+     * Try ctx.steps() configurations in the temperature of the replica.
+     */
+    private static void sweep(ParallelTempering pt, Replica replica) {
+        for (int currentStep = pt.ctx.steps(); currentStep > 0 && !replica.checker.isExpired(); currentStep--) {
+            replica.candidate.assign(replica.current);
+            replica.candidate.reconfigure(replica.rand);
+
+            // The choose a better solution must be do with a valid solution candidate.
+            if (!replica.candidate.isValid()) {
+                continue;
+            }
+
+            double energy = pt.ctx.problemType().valueOf() * replica.candidate.compute();
+            double delta = energy - replica.energy;
+
+            if (SimulatedAnnealing.accept(delta, SimulatedAnnealing.probability(delta, replica.temperature), replica.rand)) {
+                AnnealingFunction accepted = replica.candidate;
+                replica.candidate = replica.current;
+                replica.current = accepted;
+                replica.energy = energy;
+
+                if (energy < replica.bestValue) {
+                    replica.bestValue = energy;
+                    replica.best.assign(accepted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the best solution of the replicas if it is better than the best founded until the moment.
+     */
+    private static void collect(ParallelTempering pt, int round) {
+        for (Replica replica : pt.replicas) {
+            if (replica.bestValue < pt.bestValue) {
+                notifyState(pt, replica.temperature, pt.bestValue, replica.bestValue, replica.bestValue - pt.bestValue, 1,
+                    pt.ctx.problemType().valueOf() * pt.bestValue, round, true, AnnealingMessage.ACCEPTED);
+
+                pt.bestValue = replica.bestValue;
+                pt.best.assign(replica.best);
+            }
+        }
+    }
+
+    /**
+     * Try to exchange the states of the neighbours in the ladder, starting from the first or the second replica.
+     */
+    private static void exchange(ParallelTempering pt, int first) {
+        for (int i = first; i + 1 < pt.replicas.length; i += 2) {
+            Replica hot = pt.replicas[i];
+            Replica cold = pt.replicas[i + 1];
+
+            // exp((1/kT_hot - 1/kT_cold) * (E_hot - E_cold)) is the Boltzmann probability in the hot temperature
+            // of the change of energy (E_cold - E_hot) * (1 - T_hot/T_cold).
+            double delta = (cold.energy - hot.energy) * (1 - hot.temperature / cold.temperature);
+
+            if (SimulatedAnnealing.accept(delta, SimulatedAnnealing.probability(delta, hot.temperature), pt.rand)) {
+                AnnealingFunction state = hot.current;
+                hot.current = cold.current;
+                cold.current = state;
+
+                double energy = hot.energy;
+                hot.energy = cold.energy;
+                cold.energy = energy;
+            }
+        }
+    }
+
+    /**
+     * Publish a state of the process to the listener, using a reusable AnnealingEvent.
+     */
+    private static void notifyState(ParallelTempering pt, double temperature, double initialEnergy, double finalEnergy, double delta,
+            double probability, double bestValue, int currentStep, boolean accepted, AnnealingMessage message) {
+        AnnealingEvent event = pt.listener.claim();
+
+        if (event != null) {
+            event.set(temperature, initialEnergy, finalEnergy, delta, probability, bestValue, pt.ctx, currentStep, accepted, message);
+            pt.listener.publish();
+        }
+    }
+
+    private static void finish(ParallelTempering pt) {
+        // Notify the listener that the process is finished
+        notifyState(pt, 0, 0, 0, 0, 0, pt.bestValue, 0, false, AnnealingMessage.FINISH);
+
+        pt.listener.finish();
+
+        try {
+            pt.listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
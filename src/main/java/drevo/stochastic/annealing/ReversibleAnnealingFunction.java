@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>An AnnealingFunction that changes its configuration with moves that can be undone. SimulatedAnnealing
+ * uses move() instead of reconfigure() when the function implements this interface, and a rejected move
+ * is undone instead of copying the configuration.
+ * 
+ * <p>The best solution is not copied each time it is found. The process keeps the moves accepted since
+ * the best solution and only copies it, undoing and redoing these moves, when the process shares the best
+ * solution, when the list of moves is too long, or in the end of the process. So assign() and copy() are
+ * out of the loop of the steps.
+ */
+public interface ReversibleAnnealingFunction extends AnnealingFunction {
+    /**
+     * Choose a random move of the configuration, like reconfigure() does, without apply it.
+     * 
+     * @return A new move for the current configuration.
+     */
+    AnnealingMove move();
+
+    /**
+     * Choose a random move with the random numbers of the process, see {@link AnnealingFunction#reconfigure(RandomGenerator)}.
+     * By default it calls move().
+     * 
+     * @param random The stream of random numbers of the process.
+     * @return A new move for the current configuration.
+     */
+    default AnnealingMove move(RandomGenerator random) {
+        return move();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best solution found by cooling processes running at the same time. The value is the energy
+ * of the solution, already multiplied by the value of the problem type, so the lower is the better.
+ * The solution of a candidate is a copy never changed after shared, so any process can read it.
+ */
+class SharedBest {
+    record Candidate(double value, AnnealingFunction solution) {}
+
+    private final AtomicReference<Candidate> best = new AtomicReference<>(new Candidate(Double.POSITIVE_INFINITY, null));
+
+    /**
+     * Offer a solution, it is copied and shared only if it is better than the shared one.
+     *
+     * @param value The energy of the solution.
+     * @param solution The solution.
+     * @return true if the solution became the shared one.
+     */
+    boolean offer(double value, AnnealingFunction solution) {
+        Candidate current = best.get();
+
+        if (!(value < current.value())) {
+            return false;
+        }
+
+        Candidate candidate = new Candidate(value, solution.copy());
+
+        while (value < current.value()) {
+            if (best.compareAndSet(current, candidate)) {
+                return true;
+            }
+
+            current = best.get();
+        }
+
+        return false;
+    }
+
+    Candidate get() {
+        return best.get();
+    }
+}
@@ -16,9 +16,15 @@
  */
 package drevo.stochastic.annealing;
 
-import java.util.concurrent.ThreadLocalRandom;
-
-import drevo.stochastic.ProblemType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+import drevo.stochastic.Optimization;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
 import drevo.stochastic.state.StateChangeListener;
 import drevo.stochastic.state.StateChangeHandler;
 
@@ -82,6 +88,10 @@ import drevo.stochastic.state.StateChangeHandler;
  * method check if the state is valid, that is, if the point represented by the state is part of domine function.
  * Finally, copy() method create other hinstance.
  * 
+ * When the objective function is expensive and a small change of the state can be evaluated without compute all 
+ * the function again, like the length of a tour when two cities are swapped, implement IncrementalAnnealingFunction 
+ * and the cooling process will use only the energy delta of each change.
+ * 
  * AnnealingContex in other way, is a class with parameters that will be use in some execution of SimulatedAnnealing.optimize.
  * It provide a constructor with only type of problem definition, if is a maximization or a minimization one, but 
  * it also have a complete constructor to define all context property, both signature are below.
@@ -93,25 +103,39 @@ import drevo.stochastic.state.StateChangeHandler;
  * a new AnnealingFunction is returned and its internal state is the solution founded, the optimum point, minimum or maximum, depending on the type of the problem. 
  */
 public class SimulatedAnnealing {
-    private static final double BOLTZMANN_CONSTANT = 8.6173432e-5;
+    static final double BOLTZMANN_CONSTANT = 8.6173432e-5;
+    /**
+     * How many accepted moves of a ReversibleAnnealingFunction are kept before the best solution is copied.
+     */
+    static final int JOURNAL_LIMIT = 1024;
 
     private final AnnealingContext ctx;
     private final AnnealingFunction function;
 
     private final StateChangeListener listener;
-    private final Thread listenerThread;
+    private final SharedBest shared;
+    private final TimeBudget budget;
+    private final TimeBudget.Checker checker;
 
-    private final ThreadLocalRandom rand;
+    private final RandomGenerator rand;
 
     private AnnealingFunction best;
     private AnnealingFunction last;
+    private IncrementalAnnealingFunction incremental;
+    private ReversibleAnnealingFunction reversible;
+    private List<AnnealingMove> journal;
+    private boolean bestSaved;
     private double initialEnergy;
     private double finalEnergy;
     private double delta;
     private double probability;
     private double bestValue;
     private int persitenceCount;
-    private long endTime;
+    private int acceptances;
+    private int accepted;
+    private int tried;
+    private int stagnation;
+    private volatile double temperature;
     private boolean earlyStop;
 
     /**
@@ -123,28 +147,44 @@ public class SimulatedAnnealing {
      * @param ctx The context of the process was called.
      * @param function The function using to find the optimum value.
      * @param handler If the caller need know the information of the process, it need define a handle for AnnealingState.
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param budget The time limit of the cooling process.
+     * @param shared The best solution shared with other cooling processes, or null if it runs alone.
+     * @param rand The stream of random numbers of this process.
      */
-    private SimulatedAnnealing(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler) {
+    private SimulatedAnnealing(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, StateChangeContext stateContext,
+            TimeBudget budget, SharedBest shared, RandomGenerator rand) {
         this.ctx = ctx;
         this.function = function;
+        this.shared = shared;
+        this.budget = budget;
+        this.checker = budget.checker();
 
-        listener = new StateChangeListener(handler);
-        
-        listenerThread = new Thread(listener);
-        listenerThread.start();
+        listener = new StateChangeListener(handler, stateContext, AnnealingEvent::new);
 
-        rand = ThreadLocalRandom.current();
+        this.rand = rand;
 
         best = function.copy();
         last = function.copy();
+        incremental = last instanceof IncrementalAnnealingFunction f ? f : null;
+        reversible = last instanceof ReversibleAnnealingFunction f ? f : null;
+        journal = new ArrayList<>();
+        bestSaved = true;
         initialEnergy = 0;
         finalEnergy = 0;
         delta = 0;
         probability = 0;
         bestValue = ctx.problemType.valueOf() * best.compute();
         persitenceCount = 0;
-        endTime = 0;
+        acceptances = ctx.coolingSchedule().acceptances();
+        accepted = 0;
+        tried = 0;
+        stagnation = 0;
+        temperature = ctx.initialTemperature();
         earlyStop = false;
+
+        // The listener only starts when the function was computed, a failure before would never finish it.
+        listener.start();
     }
 
     /**
@@ -167,44 +207,238 @@ public class SimulatedAnnealing {
      * @return The better value founded during the process.
      */
     public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler) {
-        SimulatedAnnealing sa = new SimulatedAnnealing(ctx, function, handler);
+        return optimize(ctx, function, handler, new StateChangeContext());
+    }
+
+    /**
+     * Call the search process with a handle for internal state changes and return the better value founded.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @return The better value founded during the process.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, StateChangeContext stateContext) {
+        return optimize(ctx, function, handler, stateContext, new TimeBudget(ctx.deadline()));
+    }
+
+    /**
+     * Call the search process with a time limit instead of the deadline of the context. The same budget
+     * can be shared by many processes, that stop together when it is over.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param budget The time limit of the cooling process.
+     * @return The better value founded during the process.
+     */
+    public static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, StateChangeContext stateContext,
+            TimeBudget budget) {
+        return optimize(ctx, function, handler, stateContext, budget, null, ctx.randomSource().split());
+    }
+
+    /**
+     * Call the search process as one of many cooling processes running at the same time.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param budget The time limit of the cooling process.
+     * @param shared The best solution shared with other cooling processes, or null if it runs alone.
+     * @param rand The stream of random numbers of the process, not shared with the others.
+     * @return The better value founded during the process.
+     */
+    static AnnealingFunction optimize(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler, StateChangeContext stateContext,
+            TimeBudget budget, SharedBest shared, RandomGenerator rand) {
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null.");
+        }
 
-        sa.listener.onStateChange(new AnnealingState(0, 0, 0, 0, 0, 0, sa.ctx, 0, false, 
-            String.format("Start cooling process with context: %s", sa.ctx)));
+        return run(new SimulatedAnnealing(ctx, function, handler, stateContext, budget, shared, rand));
+    }
+
+    /**
+     * Start the search process in the common ForkJoinPool, without a handle for internal state changes.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @return The handle of the running process.
+     */
+    public static Optimization<AnnealingFunction> optimizeAsync(AnnealingContext ctx, AnnealingFunction function) {
+        return optimizeAsync(ctx, function, null);
+    }
+
+    /**
+     * Start the search process in the common ForkJoinPool.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @return The handle of the running process.
+     */
+    public static Optimization<AnnealingFunction> optimizeAsync(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler) {
+        return optimizeAsync(ctx, function, handler, new StateChangeContext(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Start the search process in the executor. The handle gives the best solution at the end of the last
+     * temperature and the progress, the largest of the fractions of the deadline and of the cooling already done.
+     * Cancelling the handle stops the process in its next step.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param executor Where the process runs.
+     * @return The handle of the running process.
+     */
+    public static Optimization<AnnealingFunction> optimizeAsync(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler,
+            StateChangeContext stateContext, Executor executor) {
+        return optimizeAsync(ctx, function, handler, stateContext, new TimeBudget(ctx.deadline()), executor);
+    }
+
+    /**
+     * Start the search process in the executor, limited by the time budget instead of the deadline of the context.
+     * Cancelling the handle expires the budget.
+     * 
+     * @param ctx The context of the process was called.
+     * @param function The function using to find the optimum value.
+     * @param handler
+     * @param stateContext How the state changes are delivered to the handler.
+     * @param budget The time limit of the process.
+     * @param executor Where the process runs.
+     * @return The handle of the running process.
+     */
+    public static Optimization<AnnealingFunction> optimizeAsync(AnnealingContext ctx, AnnealingFunction function, StateChangeHandler handler,
+            StateChangeContext stateContext, TimeBudget budget, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null.");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null.");
+        }
+
+        SharedBest best = new SharedBest();
+
+        best.offer(ctx.problemType().valueOf() * function.compute(), function);
+
+        SimulatedAnnealing sa = new SimulatedAnnealing(ctx, function, handler, stateContext, budget, best, ctx.randomSource().split());
+
+        Optimization<AnnealingFunction> optimization = new Optimization<>(
+            () -> best.get().solution().copy(),
+            () -> progress(sa),
+            budget::expire);
+
+        return optimization.start(executor, () -> run(sa));
+    }
+
+    /**
+     * Run the cooling process and finish the listener.
+     */
+    private static AnnealingFunction run(SimulatedAnnealing sa) {
+        try {
+            return cool(sa);
+        } finally {
+            finish(sa);
+        }
+    }
+
+    /**
+     * The progress of the process, the largest of the fraction of the time budget used and the fraction
+     * of the cooling, in logarithmic scale, from the initial to the final temperature.
+     */
+    private static double progress(SimulatedAnnealing sa) {
+        double cooling = 0.0;
+
+        if (sa.ctx.finalTemperature() > 0.0 && sa.ctx.initialTemperature() > sa.ctx.finalTemperature()) {
+            cooling = Math.log(sa.ctx.initialTemperature() / sa.temperature) / Math.log(sa.ctx.initialTemperature() / sa.ctx.finalTemperature());
+        }
+
+        return Math.max(sa.budget.progress(), cooling);
+    }
+
+    /**
+     * Run the cooling process for the SimulatedAnnealing object.
+     * 
+     * @param sa The SimulatedAnnealing object for this call of optimize method.
+     * @return The better value founded during the process.
+     */
+    private static AnnealingFunction cool(SimulatedAnnealing sa) {
+        notifyState(sa, 0, 0, 0, 0, 0, 0, 0, false, AnnealingMessage.START);
 
         if(!sa.function.isValid()) {
-            sa.listener.onStateChange(new AnnealingState(0, 0, 0, 0, 0, 0, sa.ctx, 0, false, 
-                "The solution candidate sent to cooling process is invalid."));
+            notifyState(sa, 0, 0, 0, 0, 0, 0, 0, false, AnnealingMessage.INVALID_CANDIDATE);
 
             return sa.function.copy();
         }
 
-        sa.listener.onStateChange(new AnnealingState(0, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, sa.ctx, 0, false, 
-            String.format("Start with value: %f", sa.best.compute())));
-
-        // Calculate the deadline
-        sa.endTime = System.currentTimeMillis() + sa.ctx.deadline();
+        notifyState(sa, 0, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, 0, false, AnnealingMessage.START_VALUE);
 
         // Cooling process
+        int level = 0;
+
         for (double temperature = sa.ctx.initialTemperature();
-            !sa.earlyStop && System.currentTimeMillis() < sa.endTime && temperature > sa.ctx.finalTemperature();
-             temperature *= (1 - sa.ctx.coolingRate())) {
+            !sa.earlyStop && !sa.budget.isExpired() && temperature > sa.ctx.finalTemperature();
+             temperature = nextTemperature(sa, temperature, ++level)) {
+            double previousBest = sa.bestValue;
 
-            sa.initialEnergy = sa.ctx.problemType().valueOf() * sa.best.compute();
+            sa.temperature = temperature;
 
-            changeSolutionState(sa, temperature);
+            sa.accepted = 0;
+            sa.tried = 0;
+
+            if (sa.reversible != null) {
+                // The energy of the current configuration is computed again to discard the rounding errors of the deltas.
+                sa.initialEnergy = sa.ctx.problemType().valueOf() * sa.last.compute();
+
+                changeReversibleState(sa, temperature);
+            } else if (sa.incremental != null) {
+                sa.initialEnergy = sa.ctx.problemType().valueOf() * sa.last.compute();
+
+                changeIncrementalState(sa, temperature);
+            } else {
+                sa.initialEnergy = sa.ctx.problemType().valueOf() * sa.best.compute();
+
+                changeSolutionState(sa, temperature);
+            }
+
+            share(sa);
+
+            sa.stagnation = sa.bestValue < previousBest ? 0 : sa.stagnation + 1;
         }
 
+        checkpoint(sa);
+
         if(!sa.best.isValid()) {
-            sa.listener.onStateChange(new AnnealingState(0, 0, 0, 0, 0, sa.bestValue, sa.ctx, 0, false, 
-                "The founded solution in cooling process is invalid."));
+            notifyState(sa, 0, 0, 0, 0, 0, sa.bestValue, 0, false, AnnealingMessage.INVALID_SOLUTION);
         }
-        
-        finish(sa);
 
         return sa.best;
     }
 
+    /**
+     * Ask the cooling schedule of the context for the next temperature, with the acceptance ratio of the current one.
+     * 
+     * @param sa The SimulatedAnnealing object for this call of optimize method.
+     * @param temperature The current temperature.
+     * @param level How many temperatures the process has visited.
+     * @return The next temperature.
+     */
+    private static double nextTemperature(SimulatedAnnealing sa, double temperature, int level) {
+        double acceptance = sa.tried == 0 ? 0.0 : (double) sa.accepted / sa.tried;
+        double next = sa.ctx.coolingSchedule().next(sa.ctx, temperature, level, acceptance, sa.stagnation);
+
+        // A raised temperature is a new chance for the best solution to improve.
+        if (next > temperature) {
+            sa.stagnation = 0;
+        }
+
+        return next;
+    }
+
     /**
      * Handle the internal change in the solution candidate and decide if should
      * be the better solution founded until the moment.
@@ -213,14 +447,16 @@ public class SimulatedAnnealing {
      * @param temperature The temperature value when try change the solution candidate.
      */
     private static void changeSolutionState(SimulatedAnnealing sa, double temperature) {
-        for (int currentStep = sa.ctx.steps(); !sa.earlyStop && currentStep > 0; currentStep--) {
-            sa.last.reconfigure();
+        for (int currentStep = sa.ctx.steps(); !sa.earlyStop && currentStep > 0 && sa.accepted < sa.acceptances; currentStep--) {
+            sa.last.reconfigure(sa.rand);
 
             // The choose a better solution must be do with a valid solution candidate.
             if(!sa.last.isValid()) {
                 continue;
             }
 
+            sa.tried++;
+
             // Calculate the current energy
             sa.finalEnergy = sa.ctx.problemType().valueOf() * sa.last.compute();
 
@@ -228,29 +464,219 @@ public class SimulatedAnnealing {
             sa.delta = sa.finalEnergy - sa.initialEnergy;
 
             // Calculate Boltzmann probability
-            sa.probability = Math.exp((-1 * sa.delta) / (BOLTZMANN_CONSTANT * temperature));
+            sa.probability = probability(sa.delta, temperature);
 
             // Check whether to accept the new configuration
-            if ((sa.delta <= 0 || sa.rand.nextDouble() < sa.probability)) {
-                // The strange thing about comparation (< and >), it is because when the problemType is MAXIMIZE,
-                // the bestValue will be negative and need changes if be higher than the finalEnergy,
-                // and when the problemType is MINIMIZE, the bestValue will be positive and need changes if be lower than the finalEnergy.
-                // So, the comparation is done with the value of problemType, that is -1 for MAXIMIZE and 1 for MINIMIZE.
-                // The reason is because the nature of Simulated Annealing allways try to find the minimal solution. 
-                if((sa.ctx.problemType == ProblemType.MAXIMIZE && sa.bestValue > sa.finalEnergy) || (sa.ctx.problemType == ProblemType.MINIMIZE && sa.bestValue < sa.finalEnergy)) {
-                    sa.listener.onStateChange(new AnnealingState(temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.ctx.problemType.valueOf() * sa.bestValue, sa.ctx, currentStep, true, "Accepted configuration"));
+            if (accept(sa.delta, sa.probability, sa.rand)) {
+                sa.accepted++;
+
+                if(improvesBest(sa)) {
+                    notifyState(sa, temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.ctx.problemType.valueOf() * sa.bestValue, currentStep, true, AnnealingMessage.ACCEPTED);
+
+                    sa.bestValue = sa.finalEnergy;
+                    sa.best.assign(sa.last);
+                }
+
+                sa.initialEnergy = sa.finalEnergy;
+            }
+
+            checkStopEarly(sa, temperature, currentStep);
+        }
+    }
+
+    /**
+     * Handle the moves proposed by an IncrementalAnnealingFunction. Unlike changeSolutionState, the
+     * configuration only changes when a move is accepted, so the energy of the current configuration
+     * is always known and each step only needs the delta of the move.
+     * 
+     * @param sa The SimulatedAnnealing object for this call of optimize method.
+     * @param temperature The temperature value when try change the solution candidate.
+     */
+    private static void changeIncrementalState(SimulatedAnnealing sa, double temperature) {
+        for (int currentStep = sa.ctx.steps(); !sa.earlyStop && currentStep > 0 && sa.accepted < sa.acceptances; currentStep--) {
+            double change = sa.incremental.propose(sa.rand);
+
+            // The move leads to an invalid solution candidate.
+            if (Double.isNaN(change)) {
+                sa.incremental.reject();
+                continue;
+            }
+
+            sa.tried++;
+            sa.delta = sa.ctx.problemType().valueOf() * change;
+            sa.finalEnergy = sa.initialEnergy + sa.delta;
+            sa.probability = probability(sa.delta, temperature);
+
+            if (accept(sa.delta, sa.probability, sa.rand)) {
+                sa.accepted++;
+                sa.incremental.commit();
+
+                if(improvesBest(sa)) {
+                    notifyState(sa, temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.ctx.problemType.valueOf() * sa.bestValue, currentStep, true, AnnealingMessage.ACCEPTED);
 
                     sa.bestValue = sa.finalEnergy;
                     sa.best.assign(sa.last);
                 }
 
                 sa.initialEnergy = sa.finalEnergy;
+            } else {
+                sa.incremental.reject();
             }
 
             checkStopEarly(sa, temperature, currentStep);
         }
     }
 
+    /**
+     * Handle the moves of a ReversibleAnnealingFunction. A move is applied in the current configuration and
+     * undone if it is rejected. A new best solution is not copied, the moves accepted after it are kept in the
+     * journal, so the best solution is the current configuration with the moves of the journal undone.
+     * 
+     * @param sa The SimulatedAnnealing object for this call of optimize method.
+     * @param temperature The temperature value when try change the solution candidate.
+     */
+    private static void changeReversibleState(SimulatedAnnealing sa, double temperature) {
+        for (int currentStep = sa.ctx.steps(); !sa.earlyStop && currentStep > 0 && sa.accepted < sa.acceptances; currentStep--) {
+            AnnealingMove move = sa.reversible.move(sa.rand);
+
+            move.apply();
+
+            // The choose a better solution must be do with a valid solution candidate.
+            if(!sa.last.isValid()) {
+                move.undo();
+                continue;
+            }
+
+            sa.tried++;
+
+            double change = move.delta();
+
+            if (Double.isNaN(change)) {
+                sa.finalEnergy = sa.ctx.problemType().valueOf() * sa.last.compute();
+            } else {
+                sa.finalEnergy = sa.initialEnergy + sa.ctx.problemType().valueOf() * change;
+            }
+
+            sa.delta = sa.finalEnergy - sa.initialEnergy;
+            sa.probability = probability(sa.delta, temperature);
+
+            if (accept(sa.delta, sa.probability, sa.rand)) {
+                sa.accepted++;
+
+                if(improvesBest(sa)) {
+                    notifyState(sa, temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.ctx.problemType.valueOf() * sa.bestValue, currentStep, true, AnnealingMessage.ACCEPTED);
+
+                    // The current configuration is the best one.
+                    sa.bestValue = sa.finalEnergy;
+                    sa.journal.clear();
+                    sa.bestSaved = false;
+                } else if (!sa.bestSaved) {
+                    sa.journal.add(move);
+
+                    if (sa.journal.size() >= JOURNAL_LIMIT) {
+                        checkpoint(sa);
+                    }
+                }
+
+                sa.initialEnergy = sa.finalEnergy;
+            } else {
+                move.undo();
+            }
+
+            checkStopEarly(sa, temperature, currentStep);
+        }
+    }
+
+    /**
+     * Copy the best solution, when it was found by a ReversibleAnnealingFunction and was not copied yet,
+     * undoing the moves of the journal and redoing them after the copy.
+     * 
+     * @param sa The SimulatedAnnealing object for this call of optimize method.
+     */
+    private static void checkpoint(SimulatedAnnealing sa) {
+        if (sa.bestSaved) {
+            return;
+        }
+
+        for (int i = sa.journal.size() - 1; i >= 0; i--) {
+            sa.journal.get(i).undo();
+        }
+
+        sa.best.assign(sa.last);
+
+        for (AnnealingMove move : sa.journal) {
+            move.apply();
+        }
+
+        sa.journal.clear();
+        sa.bestSaved = true;
+    }
+
+    /**
+     * Check if the energy of the accepted configuration is better than the energy of the best solution. The
+     * energies are already multiplied by the value of problemType, that is -1 for MAXIMIZE and 1 for MINIMIZE,
+     * so for both types of problem the lower energy is the better one.
+     * 
+     * @param sa Hinstance of SimulatedAnnealing.
+     * @return If the accepted configuration is the new best solution.
+     */
+    private static boolean improvesBest(SimulatedAnnealing sa) {
+        return sa.finalEnergy < sa.bestValue;
+    }
+
+    /**
+     * The Boltzmann probability to accept a change of energy in the temperature.
+     * 
+     * @param delta The change of energy.
+     * @param temperature The temperature of the process.
+     * @return The probability, greater than 1 when the energy goes down.
+     */
+    static double probability(double delta, double temperature) {
+        return Math.exp((-1 * delta) / (BOLTZMANN_CONSTANT * temperature));
+    }
+
+    /**
+     * The Metropolis criterion: a lower energy is always accepted, a higher one only with the Boltzmann probability.
+     * 
+     * @param delta The change of energy.
+     * @param probability The Boltzmann probability of the change.
+     * @param rand The random generator of the process.
+     * @return If the change is accepted.
+     */
+    static boolean accept(double delta, double probability, RandomGenerator rand) {
+        return delta <= 0 || rand.nextDouble() < probability;
+    }
+
+    /**
+     * Share the best solution with the other cooling processes running at the same time: offer the best
+     * solution of this process and take the shared one if it is better. A process that takes the shared
+     * solution goes on from it, so its current configuration and energy are the ones of the new best.
+     * 
+     * @param sa Hinstance of SimulatedAnnealing.
+     */
+    private static void share(SimulatedAnnealing sa) {
+        if (sa.shared == null) {
+            return;
+        }
+
+        checkpoint(sa);
+
+        sa.shared.offer(sa.bestValue, sa.best);
+
+        SharedBest.Candidate candidate = sa.shared.get();
+
+        if (candidate.value() < sa.bestValue) {
+            sa.bestValue = candidate.value();
+            sa.best.assign(candidate.solution());
+            sa.last.assign(sa.best);
+            sa.initialEnergy = sa.bestValue;
+
+            // The moves kept since the old best solution belong to the configuration that was left.
+            sa.journal.clear();
+            sa.bestSaved = true;
+        }
+    }
+
     /**
      * Check is stop early condition was achived and set the flag properly.
      * 
@@ -270,7 +696,7 @@ public class SimulatedAnnealing {
             // the amount of time this variation still below the threshold.
             if (sa.persitenceCount >= sa.ctx.variationPersitence) {
                 sa.earlyStop = true;
-                sa.listener.onStateChange(new AnnealingState(temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, sa.ctx, currentStep, true, "Early stop due to variation threshold"));
+                notifyState(sa, temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, currentStep, true, AnnealingMessage.EARLY_STOP_VARIATION);
             }
         }
         // It is important restart count for variation because it is a stochastic
@@ -279,25 +705,36 @@ public class SimulatedAnnealing {
             sa.persitenceCount = 0; // Reset persistence count if variation is above threshold
         }
 
-        // Check for early stop based on time limit computed in the begining of the process
-        long now = System.currentTimeMillis();
-        if (now >= sa.endTime) {
+        // Check for early stop based on the time budget, that only reads the clock every some steps
+        if (sa.checker.isExpired()) {
             sa.earlyStop = true;
-            sa.listener.onStateChange(new AnnealingState(temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, sa.ctx, currentStep, true, "Early stop due to time limit"));
+            notifyState(sa, temperature, sa.initialEnergy, sa.finalEnergy, sa.delta, sa.probability, sa.bestValue, currentStep, true, AnnealingMessage.EARLY_STOP_TIME);
+        }
+    }
+
+    /**
+     * Publish a state of the cooling process to the listener, using a reusable AnnealingEvent.
+     */
+    private static void notifyState(SimulatedAnnealing sa, double temperature, double initialEnergy, double finalEnergy, double delta,
+            double probability, double bestValue, int currentStep, boolean accepted, AnnealingMessage message) {
+        AnnealingEvent event = sa.listener.claim();
+
+        if (event != null) {
+            event.set(temperature, initialEnergy, finalEnergy, delta, probability, bestValue, sa.ctx, currentStep, accepted, message);
+            sa.listener.publish();
         }
     }
 
     private static void finish(SimulatedAnnealing sa) {
         // Notify the listener that the process is finished
-        sa.listener.onStateChange(new AnnealingState(0, 0, 0, 0, 0, sa.bestValue, sa.ctx, 0, false, 
-            String.format("Finising cooling process with best value: %.5f", sa.bestValue)));
+        notifyState(sa, 0, 0, 0, 0, 0, sa.bestValue, 0, false, AnnealingMessage.FINISH);
 
         sa.listener.finish();
 
         try {
-            sa.listenerThread.join();
+            sa.listener.join();
         } catch (InterruptedException e) {
-            sa.listenerThread.interrupt();
+            Thread.currentThread().interrupt();
         }
     }
 }
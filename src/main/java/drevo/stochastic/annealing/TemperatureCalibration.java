@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * <p>Choose the initial and final temperatures of a context for the energy scale of a function.
+ * 
+ * <p>The calibration walks randomly with reconfigure() over a copy of the function and keeps the
+ * energy deltas of the moves that increase the energy. The probability of the cooling process to
+ * accept one of these moves at the temperature T is the mean of exp(-delta/kT) over the samples,
+ * and the temperatures are the ones where this mean is the target acceptance ratios, found by
+ * bisection.
+ * 
+ * <p>A high initial acceptance, like 0.8, starts the process exploring the domain but not as a pure
+ * random walk, and a low final acceptance, like 0.001, ends it when almost nothing more is accepted.
+ */
+public class TemperatureCalibration {
+    public static final int DEFAULT_SAMPLES = 1000;
+    public static final double DEFAULT_INITIAL_ACCEPTANCE = 0.8;
+    public static final double DEFAULT_FINAL_ACCEPTANCE = 0.001;
+
+    private static final int BISECTIONS = 100;
+
+    private TemperatureCalibration() {
+    }
+
+    /**
+     * Calibrate the temperatures of the context with the default samples and acceptances.
+     * 
+     * @param ctx The context to calibrate.
+     * @param function The function that will be optimized.
+     * @return A copy of the context with the calibrated temperatures.
+     */
+    public static AnnealingContext calibrate(AnnealingContext ctx, AnnealingFunction function) {
+        return calibrate(ctx, function, DEFAULT_SAMPLES, DEFAULT_INITIAL_ACCEPTANCE, DEFAULT_FINAL_ACCEPTANCE);
+    }
+
+    /**
+     * Calibrate the temperatures of the context. When the samples have no move that increases the energy,
+     * there is nothing to calibrate and the context is returned.
+     * 
+     * @param ctx The context to calibrate.
+     * @param function The function that will be optimized.
+     * @param samples How many moves are sampled.
+     * @param initialAcceptance The ratio of the moves that increase the energy accepted in the initial temperature.
+     * @param finalAcceptance The ratio of the moves that increase the energy accepted in the final temperature.
+     * @return A copy of the context with the calibrated temperatures.
+     */
+    public static AnnealingContext calibrate(AnnealingContext ctx, AnnealingFunction function, int samples, double initialAcceptance, double finalAcceptance) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Samples must have non null positive values.");
+        }
+
+        if (finalAcceptance <= 0.0 || initialAcceptance >= 1.0 || finalAcceptance >= initialAcceptance) {
+            throw new IllegalArgumentException("Acceptances must be between 0 and 1, the final one less than the initial one.");
+        }
+
+        double[] deltas = sample(ctx, function, samples);
+
+        if (deltas.length == 0) {
+            return ctx;
+        }
+
+        return new AnnealingContext(
+            temperature(deltas, initialAcceptance),
+            temperature(deltas, finalAcceptance),
+            ctx.coolingRate(),
+            ctx.steps(),
+            ctx.deadline(),
+            ctx.variationThreshold(),
+            (int) ctx.variationPersitence(),
+            ctx.problemType(),
+            ctx.coolingSchedule(),
+            ctx.seed());
+    }
+
+    /**
+     * The positive energy deltas of a random walk over a copy of the function.
+     */
+    static double[] sample(AnnealingContext ctx, AnnealingFunction function, int samples) {
+        AnnealingFunction walker = function.copy();
+        RandomGenerator random = ctx.randomSource().split();
+        double energy = ctx.problemType().valueOf() * walker.compute();
+        double[] deltas = new double[samples];
+        int count = 0;
+
+        for (int i = 0; i < samples; i++) {
+            walker.reconfigure(random);
+
+            if (!walker.isValid()) {
+                continue;
+            }
+
+            double next = ctx.problemType().valueOf() * walker.compute();
+
+            if (next > energy) {
+                deltas[count++] = next - energy;
+            }
+
+            energy = next;
+        }
+
+        return Arrays.copyOf(deltas, count);
+    }
+
+    /**
+     * The ratio of the moves with the deltas accepted in the temperature.
+     */
+    static double acceptance(double[] deltas, double temperature) {
+        double sum = 0.0;
+
+        for (double delta : deltas) {
+            sum += SimulatedAnnealing.probability(delta, temperature);
+        }
+
+        return sum / deltas.length;
+    }
+
+    /**
+     * The temperature where the ratio of the moves with the deltas accepted is the target.
+     */
+    static double temperature(double[] deltas, double target) {
+        double min = Arrays.stream(deltas).min().getAsDouble();
+        double max = Arrays.stream(deltas).max().getAsDouble();
+
+        // Below low even the smallest delta is accepted less than the target, above high even the largest one is accepted more.
+        double low = min / (2 * SimulatedAnnealing.BOLTZMANN_CONSTANT * -Math.log(target));
+        double high = 2 * max / (SimulatedAnnealing.BOLTZMANN_CONSTANT * -Math.log(target));
+
+        for (int i = 0; i < BISECTIONS; i++) {
+            double middle = Math.sqrt(low * high);
+
+            if (acceptance(deltas, middle) < target) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        return Math.sqrt(low * high);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.List;
+
+/**
+ * The fitness of a block of contiguous particles of a swarm, evaluated in a single call, so a
+ * function with a high cost per call, like a remote or native evaluator, pays it once for many
+ * particles. The fitness of the particle i is written in {@code fitness[i]}, the same index it has
+ * in the swarm, and the other positions of the array must not be changed.
+ *
+ * <p>PSO calls it for disjoint blocks of the swarm at the same time, at most one block for each
+ * thread of its pool, or once for all the swarm when it runs sequentially.
+ */
+@FunctionalInterface
+public interface BatchFitness<T extends Particle<T>> {
+    /**
+     * Evaluate the fitness of the particles from index from, inclusive, to index to, exclusive, lower is better.
+     *
+     * @param particles the particles of the swarm
+     * @param from the index of the first particle of the block
+     * @param to the index after the last particle of the block
+     * @param fitness where the fitness of each particle is written, at the index of the particle
+     */
+    void evaluate(List<T> particles, int from, int to, double[] fitness);
+}
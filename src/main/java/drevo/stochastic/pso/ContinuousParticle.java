@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.Random;
+
+/**
+ * <p>A particle of a continuous problem, where the position and the velocity are vectors of doubles.
+ * The velocity is kept in an array that is never replaced: updateVelocity writes the new velocity in
+ * place, without the arrays of the components, and setVelocity and assing copy into the arrays the
+ * particle already has, so moving the particle does not allocate.
+ *
+ * <p>A copy has the position and the velocity of the particle, but not its personal best.
+ */
+public class ContinuousParticle implements Particle<ContinuousParticle> {
+    private final double[] position;
+    private final double[] velocity;
+    private ContinuousParticle personalBest;
+    private double personalBestFitness = Double.MAX_VALUE;
+
+    /**
+     * Create a particle with copies of the position and the velocity.
+     *
+     * @param position where the particle starts
+     * @param velocity the initial velocity, with the dimention of the position
+     */
+    public ContinuousParticle(double[] position, double[] velocity) {
+        if (position == null || position.length == 0) {
+            throw new IllegalArgumentException("Position cannot be null or empty");
+        }
+        if (velocity == null || velocity.length != position.length) {
+            throw new IllegalArgumentException("Velocity must have the dimention of the position");
+        }
+
+        this.position = position.clone();
+        this.velocity = velocity.clone();
+    }
+
+    /**
+     * The position of the particle, the array itself and not a copy.
+     */
+    public double[] getPosition() {
+        return position;
+    }
+
+    /**
+     * The velocity of the particle, the array itself and not a copy.
+     */
+    @Override
+    public double[] getVelocity() {
+        return velocity;
+    }
+
+    @Override
+    public void setVelocity(double[] velocity) {
+        if (velocity.length != this.velocity.length) {
+            throw new IllegalArgumentException("Velocity must have the dimention of the position");
+        }
+
+        System.arraycopy(velocity, 0, this.velocity, 0, velocity.length);
+    }
+
+    @Override
+    public void updatePosition() {
+        for (int i = 0; i < position.length; i++) {
+            position[i] += velocity[i];
+        }
+    }
+
+    @Override
+    public ContinuousParticle copy() {
+        return new ContinuousParticle(position, velocity);
+    }
+
+    @Override
+    public void assing(ContinuousParticle particle) {
+        if (particle.position.length != position.length) {
+            throw new IllegalArgumentException("Particle must have the dimention of this particle");
+        }
+
+        System.arraycopy(particle.position, 0, position, 0, position.length);
+        System.arraycopy(particle.velocity, 0, velocity, 0, velocity.length);
+        personalBest = particle.personalBest == null ? null : particle.personalBest.copy();
+        personalBestFitness = particle.personalBestFitness;
+    }
+
+    @Override
+    public ContinuousParticle getPersonalBest() {
+        return personalBest;
+    }
+
+    /**
+     * Keep a copy of the personal best, so it does not move with the particle it came from.
+     */
+    @Override
+    public void setPersonalBest(ContinuousParticle personalBest) {
+        this.personalBest = personalBest.copy();
+    }
+
+    @Override
+    public double getPersonalBestFitness() {
+        return personalBestFitness;
+    }
+
+    @Override
+    public void setPersonalBestFitness(double fitness) {
+        this.personalBestFitness = fitness;
+    }
+
+    @Override
+    public double[] calculateComponent(ContinuousParticle guide, ContinuousParticle current, double weight, Random random) {
+        double[] component = new double[position.length];
+
+        for (int i = 0; i < component.length; i++) {
+            component[i] = weight * random.nextDouble() * (guide.position[i] - current.position[i]);
+        }
+
+        return component;
+    }
+
+    /**
+     * Update the velocity in place, with the random numbers in the order of the default implementation:
+     * first all the cognitive ones, then all the social ones.
+     */
+    @Override
+    public void updateVelocity(ContinuousParticle guide, double inertiaWeight, double cognitiveWeight, double socialWeight, Random random) {
+        double[] best = personalBest.position;
+
+        for (int i = 0; i < velocity.length; i++) {
+            velocity[i] = inertiaWeight * velocity[i] + cognitiveWeight * random.nextDouble() * (best[i] - position[i]);
+        }
+
+        for (int i = 0; i < velocity.length; i++) {
+            velocity[i] += socialWeight * random.nextDouble() * (guide.position[i] - position[i]);
+        }
+    }
+}
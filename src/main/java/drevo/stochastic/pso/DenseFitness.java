@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+/**
+ * The fitness of a particle of a DenseSwarm. The position of the particle is a row of the
+ * array of positions of all the swarm, so the function reads it without copying:
+ * the coordinate i of the particle is {@code positions[offset + i]}.
+ */
+@FunctionalInterface
+public interface DenseFitness {
+    /**
+     * Evaluate the fitness of a position, lower is better.
+     *
+     * @param positions the array of positions of the swarm
+     * @param offset the index of the first coordinate of the particle
+     * @param dimention how many coordinates the particle has
+     * @return the fitness of the position
+     */
+    double evaluate(double[] positions, int offset, int dimention);
+}
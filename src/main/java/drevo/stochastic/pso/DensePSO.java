@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import drevo.math.Kernels;
+import drevo.stochastic.Optimization;
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+import drevo.stochastic.state.StateChangeListener;
+
+/**
+ * <p>A PSO over a DenseSwarm. It follows the same dynamics, context, state changes and early stop
+ * of PSO, but the particles are rows of primitive arrays, moved in tight loops that do not allocate,
+ * with the vector {@link Kernels} when the JVM has the Vector API.
+ * It is meant for large swarms of continuous particles, where the objects of PSO, one for each
+ * particle and one more for each personal best, dominate the time of an iteration.
+ *
+ * <p>In each iteration all the particles move and update their personal bests, in parallel, against
+ * the global best of the previous iteration. Then the global best is updated once, from the best of
+ * the personal bests, so the particles never wait for each other. In a local {@link Topology} all the
+ * particles move before any personal best is updated, and the best of each neighbourhood is found
+ * once, after the personal bests.
+ */
+public class DensePSO {
+    private static final Kernels KERNELS = Kernels.get();
+
+    private final PSOContext context;
+
+    private final DenseFitness fitnessFunction;
+    private final StateChangeListener listener;
+    private final DenseSwarm swarm;
+    private final ForkJoinPool pool;
+
+    private final double[] globalBest;
+    private final ThreadLocal<double[][]> factors;
+    private final SplittableRandom[] randoms; // The stream of random numbers of each particle
+    private final SplittableRandom topologyRandom; // The stream of random numbers of the topology
+
+    private int[][] neighbourhoods; // The neighbourhoods of the topology, null for the global one
+    private final int[] guides; // The particle with the best personal best of the neighbourhood of each particle
+    private final double[] fitness; // The fitness of the current position of each particle
+    private double globalBestFitness = Double.MAX_VALUE;
+    private double lastGlobalBestFitness = Double.MAX_VALUE;
+
+    private long persitenceCount = 0; // Count of iterations with no improvement
+
+    private volatile int iterationsDone = 0; // Read by the handle of an asynchronous optimization
+
+    /**
+     * Constructs a DensePSO instance that evaluates the particles in the common ForkJoinPool.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param swarm the swarm, that is changed by the optimization
+     */
+    public DensePSO(PSOContext context, DenseFitness fitnessFunction, StateChangeHandler handler, DenseSwarm swarm) {
+        this(context, fitnessFunction, handler, new StateChangeContext(), ForkJoinPool.commonPool(), swarm);
+    }
+
+    /**
+     * Constructs a DensePSO instance.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles are evaluated in parallel, or null to evaluate them sequentially
+     * @param swarm the swarm, that is changed by the optimization
+     */
+    public DensePSO(PSOContext context, DenseFitness fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, DenseSwarm swarm) {
+        this(context, fitnessFunction, handler, stateContext, pool, context == null ? null : context.randomSource(), swarm);
+    }
+
+    /**
+     * Constructs a DensePSO instance whose particles draw their random numbers from their own streams of the source,
+     * split in the order of the swarm.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles are evaluated in parallel, or null to evaluate them sequentially
+     * @param randomSource where the streams of random numbers of the particles come from
+     * @param swarm the swarm, that is changed by the optimization
+     */
+    public DensePSO(PSOContext context, DenseFitness fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, RandomSource randomSource, DenseSwarm swarm) {
+        if (context == null) {
+            throw new IllegalArgumentException("PSOContext cannot be null");
+        }
+        if (fitnessFunction == null) {
+            throw new IllegalArgumentException("Fitness function cannot be null");
+        }
+        if (stateContext == null) {
+            throw new IllegalArgumentException("StateChangeContext cannot be null");
+        }
+        if (randomSource == null) {
+            throw new IllegalArgumentException("RandomSource cannot be null");
+        }
+        if (swarm == null) {
+            throw new IllegalArgumentException("Swarm cannot be null");
+        }
+
+        this.context = context;
+        this.fitnessFunction = fitnessFunction;
+        this.listener = new StateChangeListener(handler, stateContext, PSOEvent::new);
+        this.swarm = swarm;
+        this.pool = pool;
+        this.globalBest = new double[swarm.dimention];
+        this.factors = ThreadLocal.withInitial(() -> new double[2][swarm.dimention]);
+        this.randoms = new SplittableRandom[swarm.size];
+
+        for (int p = 0; p < randoms.length; p++) {
+            randoms[p] = randomSource.split();
+        }
+
+        this.topologyRandom = randomSource.split();
+        this.neighbourhoods = context.topology.neighbourhoods(swarm.size, topologyRandom);
+        this.guides = new int[swarm.size];
+        this.fitness = new double[swarm.size];
+
+        listener.start();
+
+        try {
+            initializeSwarm();
+        } catch (RuntimeException | Error e) {
+            // The optimization will never run, so the listener must not wait for it.
+            finish();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Finish the listener and wait for it to process the state changes already published.
+     */
+    private void finish() {
+        listener.finish();
+
+        try {
+            // Wait for the listener to finish processing
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Initializes the swarm by evaluating each particle's fitness and setting their personal bests.
+     * Also determines the global best particle based on fitness.
+     */
+    private void initializeSwarm() {
+        notifyState(0, 0.0, 0.0, PSOMessage.INITIALIZE_SWARM);
+
+        int d = swarm.dimention;
+
+        System.arraycopy(swarm.positions, 0, swarm.bestPositions, 0, swarm.positions.length);
+
+        for (int p = 0; p < swarm.size; p++) {
+            swarm.bestFitness[p] = fitnessFunction.evaluate(swarm.positions, p * d, d);
+        }
+
+        updateGlobalBest();
+        updateGuides();
+    }
+
+    /**
+     * Starts the PSO optimization process.
+     */
+    public void optimize() {
+        optimize(new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the PSO optimization process, that stops after the iteration in which the time budget is over.
+     *
+     * @param budget the time limit of the process
+     */
+    public void optimize(TimeBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        try {
+            notifyState(0, globalBestFitness, globalBestFitness, PSOMessage.START);
+
+            for (int iteration = 0; iteration < context.maxIterations; iteration++) {
+                if (budget.isExpired()) {
+                    notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.EARLY_STOP_TIME);
+
+                    break;
+                }
+
+                lastGlobalBestFitness = globalBestFitness;
+
+                if (context.topology.redraw(iteration)) {
+                    neighbourhoods = context.topology.neighbourhoods(swarm.size, topologyRandom);
+                    updateGuides();
+                }
+
+                particlesDynamic();
+                updateGlobalBest();
+                updateGuides();
+
+                iterationsDone = iteration + 1;
+
+                notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.IMPROVEMENT);
+
+                if (checkStopEarly()) {
+                    notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.EARLY_STOP_VARIATION);
+
+                    break;
+                }
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Starts the PSO optimization process in the common ForkJoinPool.
+     *
+     * @return the handle of the running optimization, with a copy of the global best position as result
+     */
+    public Optimization<double[]> optimizeAsync() {
+        return optimizeAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Starts the PSO optimization process in the executor.
+     *
+     * @param executor where the optimization runs
+     * @return the handle of the running optimization, with a copy of the global best position as result
+     */
+    public Optimization<double[]> optimizeAsync(Executor executor) {
+        return optimizeAsync(executor, new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the PSO optimization process in the executor, limited by the time budget. The handle gives a copy of
+     * the global best position found so far and the fraction of the iterations done, and cancelling it stops the
+     * process after the current iteration.
+     *
+     * @param executor where the optimization runs
+     * @param budget the time limit of the process, expired when the handle is cancelled
+     * @return the handle of the running optimization, with a copy of the global best position as result
+     */
+    public Optimization<double[]> optimizeAsync(Executor executor, TimeBudget budget) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        Optimization<double[]> optimization = new Optimization<>(
+            this::getGlobalBest,
+            () -> (double) iterationsDone / context.maxIterations,
+            budget::expire);
+
+        return optimization.start(executor, () -> {
+            optimize(budget);
+
+            return getGlobalBest();
+        });
+    }
+
+    /**
+     * Moves all the particles and updates their personal bests.
+     */
+    private void particlesDynamic() {
+        if (neighbourhoods == null) {
+            forEachParticle(this::moveParticle);
+        } else {
+            forEachParticle(this::moveToNeighbourhood);
+            forEachParticle(this::updatePersonalBest);
+        }
+    }
+
+    /**
+     * Run the action for each particle, sequentially or in the pool.
+     */
+    private void forEachParticle(IntConsumer action) {
+        if (pool == null) {
+            for (int p = 0; p < swarm.size; p++) {
+                action.accept(p);
+            }
+        } else {
+            // The stream runs in the pool of the task that starts it
+            pool.submit(() -> IntStream.range(0, swarm.size).parallel().forEach(action)).join();
+        }
+    }
+
+    /**
+     * Updates the velocity and the position of a particle, in its rows of the swarm, and its personal best.
+     * The global best is only read, it changes between the iterations.
+     */
+    private void moveParticle(int p) {
+        move(p, globalBest, 0);
+        updatePersonalBest(p);
+    }
+
+    /**
+     * Moves a particle toward the personal best of the best of its neighbourhood, that is only read,
+     * the personal bests change after all the particles move.
+     */
+    private void moveToNeighbourhood(int p) {
+        move(p, swarm.bestPositions, guides[p] * swarm.dimention);
+    }
+
+    /**
+     * Updates the velocity and the position of a particle, in its rows of the swarm, and evaluates it.
+     */
+    private void move(int p, double[] guide, int guideOffset) {
+        SplittableRandom random = randoms[p];
+
+        int d = swarm.dimention;
+        int row = p * d;
+
+        // The random factors of the cognitive and social components, drawn before the kernel moves the particle.
+        double[][] r = factors.get();
+
+        for (int i = 0; i < d; i++) {
+            r[0][i] = random.nextDouble();
+            r[1][i] = random.nextDouble();
+        }
+
+        KERNELS.move(swarm.positions, swarm.velocities, swarm.bestPositions, row, guide, guideOffset, r[0], r[1], d,
+            context.inertiaWeight, context.cognitiveWeight, context.socialWeight);
+
+        fitness[p] = fitnessFunction.evaluate(swarm.positions, row, d);
+    }
+
+    /**
+     * Updates the personal best of a particle if its current position is better.
+     */
+    private void updatePersonalBest(int p) {
+        int d = swarm.dimention;
+
+        if (fitness[p] < swarm.bestFitness[p]) {
+            swarm.bestFitness[p] = fitness[p];
+            System.arraycopy(swarm.positions, p * d, swarm.bestPositions, p * d, d);
+        }
+    }
+
+    /**
+     * Finds the best personal best of each neighbourhood, the first neighbour wins a tie.
+     */
+    private void updateGuides() {
+        if (neighbourhoods == null) {
+            return;
+        }
+
+        for (int p = 0; p < swarm.size; p++) {
+            int best = neighbourhoods[p][0];
+
+            for (int neighbour : neighbourhoods[p]) {
+                if (swarm.bestFitness[neighbour] < swarm.bestFitness[best]) {
+                    best = neighbour;
+                }
+            }
+
+            guides[p] = best;
+        }
+    }
+
+    /**
+     * Takes the best of the personal bests as the global best, if it is better.
+     */
+    private void updateGlobalBest() {
+        int bestParticle = -1;
+        double bestFitness = globalBestFitness;
+
+        for (int p = 0; p < swarm.size; p++) {
+            if (swarm.bestFitness[p] < bestFitness) {
+                bestFitness = swarm.bestFitness[p];
+                bestParticle = p;
+            }
+        }
+
+        if (bestParticle >= 0) {
+            synchronized (globalBest) {
+                System.arraycopy(swarm.bestPositions, bestParticle * swarm.dimention, globalBest, 0, swarm.dimention);
+                globalBestFitness = bestFitness;
+            }
+        }
+    }
+
+    /**
+     * Publish a state of the optimization to the listener, using a reusable PSOEvent.
+     */
+    private void notifyState(int iteration, double globalBestFitness, double lastGlobalBestFitness, PSOMessage message) {
+        PSOEvent event = listener.claim();
+
+        if (event != null) {
+            event.set(iteration, globalBestFitness, lastGlobalBestFitness, swarm.size, message);
+            listener.publish();
+        }
+    }
+
+    /**
+     * A copy of the global best position.
+     */
+    public double[] getGlobalBest() {
+        synchronized (globalBest) {
+            return globalBest.clone();
+        }
+    }
+
+    public double getGlobalBestFitness() {
+        return globalBestFitness;
+    }
+
+    public DenseSwarm getSwarm() {
+        return swarm;
+    }
+
+    /**
+     * Check if the variation of the global best stayed below the threshold for long enough.
+     */
+    private boolean checkStopEarly() {
+        double variation = Math.abs(this.globalBestFitness - this.lastGlobalBestFitness);
+
+        if (variation < context.variationThreshold) {
+            persitenceCount++;
+
+            return (persitenceCount >= context.variationPersitence);
+        } else {
+            persitenceCount = 0;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import drevo.math.Interval;
+
+/**
+ * <p>A swarm stored as a structure of arrays: the positions, velocities and personal best positions
+ * of all the particles are kept in three contiguous arrays of doubles, with one row of
+ * {@code dimention} values for each particle, and the fitness of the personal bests in a fourth array.
+ * There is no object for each particle, so DensePSO moves the swarm in tight loops over primitive
+ * arrays, without pointer chasing or allocation.
+ *
+ * <p>The coordinate i of the particle p is at the index {@code p * dimention + i} of each array.
+ */
+public class DenseSwarm {
+    final int size;
+    final int dimention;
+    final double[] positions;
+    final double[] velocities;
+    final double[] bestPositions;
+    final double[] bestFitness;
+
+    /**
+     * Create a swarm with random positions inside the bounds and random velocities
+     * of up to half of the width of the bounds.
+     *
+     * @param size how many particles the swarm has
+     * @param dimention how many coordinates each particle has
+     * @param bounds where the particles start, the same for all the coordinates
+     */
+    public DenseSwarm(int size, int dimention, Interval bounds) {
+        this(size, dimention, bounds, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Create a swarm with random positions inside the bounds and random velocities of up to half of the
+     * width of the bounds, drawn from the generator, so a seeded generator gives always the same swarm.
+     *
+     * @param size how many particles the swarm has
+     * @param dimention how many coordinates each particle has
+     * @param bounds where the particles start, the same for all the coordinates
+     * @param random where the positions and velocities come from
+     */
+    public DenseSwarm(int size, int dimention, Interval bounds, RandomGenerator random) {
+        this(size, dimention);
+
+        if (bounds == null) {
+            throw new IllegalArgumentException("Bounds cannot be null");
+        }
+        if (random == null) {
+            throw new IllegalArgumentException("RandomGenerator cannot be null");
+        }
+
+        double width = bounds.upper() - bounds.low();
+
+        for (int k = 0; k < positions.length; k++) {
+            positions[k] = bounds.low() + width * random.nextDouble();
+            velocities[k] = width * (random.nextDouble() - 0.5);
+        }
+    }
+
+    /**
+     * Create a swarm from the positions and velocities of its particles, that are copied.
+     *
+     * @param positions the position of each particle
+     * @param velocities the velocity of each particle
+     */
+    public DenseSwarm(double[][] positions, double[][] velocities) {
+        this(positions == null ? 0 : positions.length, positions == null || positions.length == 0 ? 0 : positions[0].length);
+
+        if (velocities == null || velocities.length != size) {
+            throw new IllegalArgumentException("Velocities must have one row for each particle");
+        }
+
+        for (int p = 0; p < size; p++) {
+            if (positions[p] == null || positions[p].length != dimention || velocities[p] == null || velocities[p].length != dimention) {
+                throw new IllegalArgumentException("Positions and velocities must have the same dimention for all the particles");
+            }
+
+            System.arraycopy(positions[p], 0, this.positions, p * dimention, dimention);
+            System.arraycopy(velocities[p], 0, this.velocities, p * dimention, dimention);
+        }
+    }
+
+    private DenseSwarm(int size, int dimention) {
+        if (size <= 0 || dimention <= 0) {
+            throw new IllegalArgumentException("Size and dimention must have non null positive values");
+        }
+        if ((long) size * dimention > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The swarm is too large for an array");
+        }
+
+        this.size = size;
+        this.dimention = dimention;
+        this.positions = new double[size * dimention];
+        this.velocities = new double[size * dimention];
+        this.bestPositions = new double[size * dimention];
+        this.bestFitness = new double[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimention() {
+        return dimention;
+    }
+
+    /**
+     * The coordinate i of the position of the particle p.
+     */
+    public double position(int p, int i) {
+        return positions[p * dimention + i];
+    }
+
+    /**
+     * The coordinate i of the velocity of the particle p.
+     */
+    public double velocity(int p, int i) {
+        return velocities[p * dimention + i];
+    }
+
+    /**
+     * The coordinate i of the personal best position of the particle p.
+     */
+    public double bestPosition(int p, int i) {
+        return bestPositions[p * dimention + i];
+    }
+
+    /**
+     * The fitness of the personal best position of the particle p.
+     */
+    public double bestFitness(int p) {
+        return bestFitness[p];
+    }
+}
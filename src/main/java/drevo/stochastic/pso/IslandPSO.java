@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import drevo.stochastic.Optimization;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.pso.PSO.Migrant;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+
+/**
+ * <p>An island model of PSO: several swarms, the islands, each one with its own PSOContext, optimize the same
+ * function in their own ForkJoinPool, so the threads of an island never wait for the particles of another.
+ *
+ * <p>After each migration interval an island leaves copies of its best personal bests to the next island of
+ * the ring and takes the ones left by the previous island, if there are new ones, as the personal bests of
+ * its worst particles. The islands never wait for each other: an island that is slower than its neighbour
+ * only takes the latest migrants it left. Between the migrations the islands share nothing, which keeps
+ * the diversity of the swarms and limits the synchronization between the cores to the migrations.
+ *
+ * <p>The handler receives the state changes of all the islands, from their own listeners, so it must be
+ * thread safe.
+ */
+public class IslandPSO<T extends Particle<T>> {
+    private final List<PSO<T>> islands;
+    private final List<ForkJoinPool> pools;
+    private final List<AtomicReference<List<Migrant<T>>>> outboxes; // The migrants left by each island
+    private final int migrationInterval;
+    private final int migrants;
+
+    /**
+     * Constructs an IslandPSO instance that divides the processors among the islands.
+     *
+     * @param contexts the PSO context of each island
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param swarms the initial swarm of each island
+     * @param migrationInterval how many iterations between the migrations
+     * @param migrants how many particles migrate from each island
+     */
+    public IslandPSO(List<PSOContext> contexts, Function<T, Double> fitnessFunction, StateChangeHandler handler, List<List<T>> swarms,
+            int migrationInterval, int migrants) {
+        this(contexts, fitnessFunction, handler, new StateChangeContext(), swarms,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, swarms == null ? 1 : swarms.size())),
+            migrationInterval, migrants);
+    }
+
+    /**
+     * Constructs an IslandPSO instance.
+     *
+     * @param contexts the PSO context of each island
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param swarms the initial swarm of each island
+     * @param threadsPerIsland the parallelism of the pool of each island
+     * @param migrationInterval how many iterations between the migrations
+     * @param migrants how many particles migrate from each island
+     */
+    public IslandPSO(List<PSOContext> contexts, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            List<List<T>> swarms, int threadsPerIsland, int migrationInterval, int migrants) {
+        if (contexts == null || contexts.isEmpty() || contexts.stream().anyMatch(context -> context == null)) {
+            throw new IllegalArgumentException("Contexts cannot be null or empty");
+        }
+        if (swarms == null || swarms.size() != contexts.size()) {
+            throw new IllegalArgumentException("There must be one swarm for each context");
+        }
+        if (threadsPerIsland <= 0 || migrationInterval <= 0) {
+            throw new IllegalArgumentException("Threads per island and migration interval must have non null positive values");
+        }
+        if (migrants < 0 || swarms.stream().anyMatch(swarm -> swarm != null && swarm.size() < migrants)) {
+            throw new IllegalArgumentException("Migrants must be between 0 and the size of the smallest swarm");
+        }
+
+        this.islands = new ArrayList<>(contexts.size());
+        this.pools = new ArrayList<>(contexts.size());
+        this.outboxes = new ArrayList<>(contexts.size());
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+
+        try {
+            for (int i = 0; i < contexts.size(); i++) {
+                ForkJoinPool pool = new ForkJoinPool(threadsPerIsland);
+
+                pools.add(pool);
+                islands.add(new PSO<>(contexts.get(i), fitnessFunction, handler, stateContext, pool, swarms.get(i)));
+                outboxes.add(new AtomicReference<>());
+            }
+        } catch (RuntimeException | Error e) {
+            // The islands already created will never run.
+            islands.forEach(PSO::finish);
+            pools.forEach(ForkJoinPool::shutdown);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the optimization of all the islands and waits for them.
+     */
+    public void optimize() {
+        optimize(new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the optimization of all the islands, that stop after the iteration in which the time budget is over,
+     * and waits for them. If an island fails, the others are stopped and the failure is thrown. The pools of the
+     * islands are shut down at the end.
+     *
+     * @param budget the time limit of the process
+     */
+    public void optimize(TimeBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(islands.size());
+
+        try {
+            for (int i = 0; i < islands.size(); i++) {
+                int index = i;
+                tasks.add(pools.get(i).submit(() -> optimizeIsland(index, budget)));
+            }
+
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pools.forEach(ForkJoinPool::shutdown);
+        }
+    }
+
+    /**
+     * Optimize one island, in its own pool, migrating after each interval.
+     */
+    private void optimizeIsland(int index, TimeBudget budget) {
+        PSO<T> island = islands.get(index);
+        AtomicReference<List<Migrant<T>>> outbox = outboxes.get(index);
+        AtomicReference<List<Migrant<T>>> inbox = outboxes.get(Math.floorMod(index - 1, islands.size()));
+
+        try {
+            island.optimize(budget, migrants == 0 ? 0 : migrationInterval, () -> {
+                outbox.set(island.emigrants(migrants));
+
+                // The migrants are taken only once, an island slower than its neighbour skips the older ones.
+                List<Migrant<T>> arriving = inbox.getAndSet(null);
+
+                if (arriving != null) {
+                    island.immigrate(arriving);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            budget.expire();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the optimization of the islands from the executor, that waits for them. The handle gives a copy of the
+     * best global best of the islands and the mean fraction of their iterations done, and cancelling it stops the
+     * islands after their current iteration.
+     *
+     * @param executor where the optimization waits for the islands
+     * @param budget the time limit of the process, expired when the handle is cancelled
+     * @return the handle of the running optimization, with the best global best as result
+     */
+    public Optimization<T> optimizeAsync(Executor executor, TimeBudget budget) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        Optimization<T> optimization = new Optimization<>(
+            () -> getGlobalBest().copy(),
+            () -> islands.stream().mapToDouble(PSO::progress).average().orElse(1.0),
+            budget::expire);
+
+        return optimization.start(executor, () -> {
+            optimize(budget);
+
+            return getGlobalBest();
+        });
+    }
+
+    /**
+     * The island with the best global best.
+     */
+    private PSO<T> bestIsland() {
+        return islands.stream().min(Comparator.comparingDouble(PSO::getGlobalBestFitness)).get();
+    }
+
+    public T getGlobalBest() {
+        return bestIsland().getGlobalBest();
+    }
+
+    public double getGlobalBestFitness() {
+        return bestIsland().getGlobalBestFitness();
+    }
+
+    public List<PSO<T>> getIslands() {
+        return Collections.unmodifiableList(islands);
+    }
+}
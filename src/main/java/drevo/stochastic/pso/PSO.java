@@ -17,49 +17,176 @@
 package drevo.stochastic.pso;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import drevo.stochastic.Optimization;
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
 import drevo.stochastic.state.StateChangeHandler;
 import drevo.stochastic.state.StateChangeListener;
 
 public class PSO<T extends Particle<T>> {
+    /**
+     * A copy of a personal best that moves to another swarm, with its fitness.
+     */
+    record Migrant<T>(T particle, double fitness) {}
+
     private final PSOContext context;
 
-    private final Function<T, Double> fitnessFunction;
+    private final BatchFitness<T> fitnessFunction;
+    private final int blockSize; // How many contiguous particles are evaluated in each call of the fitness function
     private final StateChangeListener listener;
-    private final Thread listenerThread;
     private final List<T> swarm;
+    private final ForkJoinPool pool;
+
+    private final Random[] randoms; // The stream of random numbers of each particle
+    private final RandomGenerator topologyRandom; // The stream of random numbers of the topology
 
-    private final Random random;
-    
-    private T globalBest;
-    private double globalBestFitness = Double.MAX_VALUE;
+    private int[][] neighbourhoods; // The neighbourhoods of the topology, null for the global one
+    private final int[] guides; // The index of the best personal best of the neighbourhood of each particle
+    private final double[] fitness; // The fitness of the current position of each particle
+
+    // Replaced, never changed, once per iteration by the thread of optimize, so it can be read from any thread
+    private volatile T globalBest;
+    private volatile double globalBestFitness = Double.MAX_VALUE;
     private double lastGlobalBestFitness = Double.MAX_VALUE;
-    private Semaphore globalBestMutex = new Semaphore(1, true);
 
     private long persitenceCount = 0; // Count of iterations with no improvement
 
+    private volatile int iterationsDone = 0; // Read by the handle of an asynchronous optimization
+
     /**
      * Constructs a PSO instance with the specified context, fitness function, state change handler, and initial swarm.
      *
      * @param context the PSO context containing configuration parameters
      * @param fitnessFunction the function to evaluate the fitness of particles
-     * @param handler the state change handler to process state changes
+     * @param handler the state change handler to process state changes, or null to ignore them
      * @param initialSwarm the initial swarm of particles
      */
     public PSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, new StateChangeContext(), initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance with the specified context, fitness function, state change handler, and initial swarm.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, stateContext, ForkJoinPool.commonPool(), initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance that evaluates the particles in the given pool, or sequentially in the thread
+     * that calls optimize when the pool is null. A process that must not compete with the others for the
+     * common ForkJoinPool, like the jobs of an OptimizerPool, runs with its own pool or sequentially.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles are evaluated in parallel, or null to evaluate them sequentially
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, stateContext, pool, context == null ? null : context.randomSource(), initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance whose particles draw their random numbers from their own streams of the source,
+     * split in the order of the swarm, so no thread waits for another to get a random number.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles are evaluated in parallel, or null to evaluate them sequentially
+     * @param randomSource where the streams of random numbers of the particles come from
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, RandomSource randomSource, List<T> initialSwarm) {
+        this(context, fitnessFunction == null ? null : perParticle(fitnessFunction), 1, handler, stateContext, pool, randomSource, initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance that evaluates blocks of the swarm with a batch fitness function in the common
+     * ForkJoinPool, one block for each thread of the pool, or each particle at a time with a ParticleFitness.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of blocks of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, BatchFitness<T> fitnessFunction, StateChangeHandler handler, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, new StateChangeContext(), ForkJoinPool.commonPool(), initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance that evaluates blocks of the swarm with a batch fitness function, one block for each
+     * thread of the pool, or all the swarm in a single call when the pool is null.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of blocks of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the blocks are evaluated in parallel, or null to evaluate the swarm sequentially
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, BatchFitness<T> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, stateContext, pool, context == null ? null : context.randomSource(), initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance that evaluates blocks of the swarm with a batch fitness function and whose particles
+     * draw their random numbers from their own streams of the source.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of blocks of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the blocks are evaluated in parallel, or null to evaluate the swarm sequentially
+     * @param randomSource where the streams of random numbers of the particles come from
+     * @param initialSwarm the initial swarm of particles
+     */
+    public PSO(PSOContext context, BatchFitness<T> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, RandomSource randomSource, List<T> initialSwarm) {
+        this(context, fitnessFunction, fitnessFunction instanceof ParticleFitness ? 1 : 0, handler, stateContext, pool, randomSource, initialSwarm);
+    }
+
+    /**
+     * Constructs a PSO instance that evaluates blocks of blockSize particles, or one block for each thread of the pool
+     * when blockSize is 0.
+     */
+    private PSO(PSOContext context, BatchFitness<T> fitnessFunction, int blockSize, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, RandomSource randomSource, List<T> initialSwarm) {
         if (context == null) {
             throw new IllegalArgumentException("PSOContext cannot be null");
         }
         if (fitnessFunction == null) {
             throw new IllegalArgumentException("Fitness function cannot be null");
         }
-        if (handler == null) {
-            throw new IllegalArgumentException("StateChangeHandler cannot be null");
+        if (stateContext == null) {
+            throw new IllegalArgumentException("StateChangeContext cannot be null");
+        }
+        if (randomSource == null) {
+            throw new IllegalArgumentException("RandomSource cannot be null");
         }
         if (initialSwarm == null || initialSwarm.isEmpty()) {
             throw new IllegalArgumentException("Initial swarm cannot be null or empty");
@@ -70,15 +197,55 @@ public class PSO<T extends Particle<T>> {
 
         this.context = context;
         this.fitnessFunction = fitnessFunction;
-        this.listener = new StateChangeListener(handler);
+        this.listener = new StateChangeListener(handler, stateContext, PSOEvent::new);
         this.swarm = new ArrayList<>(initialSwarm);
+        this.pool = pool;
+        this.blockSize = blockSize > 0 ? blockSize
+            : pool == null ? swarm.size() : (swarm.size() + pool.getParallelism() - 1) / pool.getParallelism();
+
+        this.randoms = new Random[swarm.size()];
+
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = randomSource.random();
+        }
+
+        this.topologyRandom = randomSource.split();
+        this.neighbourhoods = context.topology.neighbourhoods(swarm.size(), topologyRandom);
+        this.guides = new int[swarm.size()];
+        this.fitness = new double[swarm.size()];
 
-        this.random = new Random();
-       
-        listenerThread = new Thread(listener);
-        listenerThread.start();
+        listener.start();
 
-        initializeSwarm();
+        try {
+            initializeSwarm();
+        } catch (RuntimeException | Error e) {
+            // The optimization will never run, so the listener must not wait for it.
+            finish();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Finish the listener and wait for it to process the state changes already published.
+     * An engine that drops the PSO without optimizing it calls it too, so the listener does not wait forever.
+     */
+    void finish() {
+        listener.finish();
+
+        try {
+            // Wait for the listener to finish processing
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A fitness function that evaluates the particles one by one, unboxing the results of the function.
+     */
+    private static <T extends Particle<T>> ParticleFitness<T> perParticle(Function<T, Double> fitnessFunction) {
+        return particle -> fitnessFunction.apply(particle);
     }
 
     /**
@@ -88,19 +255,18 @@ public class PSO<T extends Particle<T>> {
     private void initializeSwarm() {
         globalBest = swarm.get(0).copy();
 
-        listener.onStateChange(new PSOState(0, 0.0, 0.0, 
-            String.format("Initialize swarm with %d particles...", swarm.size())));
+        notifyState(0, 0.0, 0.0, PSOMessage.INITIALIZE_SWARM);
+
+        fitnessFunction.evaluate(swarm, 0, swarm.size(), fitness);
 
-        for (T particle : swarm) {
-            double fitness = fitnessFunction.apply(particle);
+        for (int i = 0; i < swarm.size(); i++) {
+            T particle = swarm.get(i);
             particle.setPersonalBest(particle.copy());
-            particle.setPersonalBestFitness(fitness);
-            
-            if (fitness < globalBestFitness) {
-                globalBestFitness = fitness;
-                globalBest = particle.copy();
-            }
+            particle.setPersonalBestFitness(fitness[i]);
         }
+
+        updateGlobalBest();
+        updateGuides();
     }
 
     /**
@@ -108,99 +274,324 @@ public class PSO<T extends Particle<T>> {
      * Iteratively updates particle velocities and positions, evaluates fitness, and updates personal and global bests.
      */
     public void optimize() {
-        listener.onStateChange(new PSOState(0, 0.0, 0.0, 
-            String.format("Initialize swarm with %.5f global best value.", globalBestFitness)));
+        optimize(new TimeBudget(Long.MAX_VALUE));
+    }
 
-        for (int iteration = 0; iteration < context.maxIterations; iteration++) {
-            lastGlobalBestFitness = globalBestFitness;
+    /**
+     * Starts the PSO optimization process, that stops after the iteration in which the time budget is over.
+     *
+     * @param budget the time limit of the process
+     */
+    public void optimize(TimeBudget budget) {
+        optimize(budget, 0, null);
+    }
+
+    /**
+     * Starts the PSO optimization process, running the migration after each interval of iterations,
+     * in the thread of optimize, while no particle moves.
+     *
+     * @param budget the time limit of the process
+     * @param interval how many iterations between the migrations, or 0 for none
+     * @param migration what changes the swarm between the iterations
+     */
+    void optimize(TimeBudget budget, int interval, Runnable migration) {
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        try {
+            notifyState(0, globalBestFitness, globalBestFitness, PSOMessage.START);
+
+            for (int iteration = 0; iteration < context.maxIterations; iteration++) {
+                if (budget.isExpired()) {
+                    notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.EARLY_STOP_TIME);
+
+                    break;
+                }
+
+                lastGlobalBestFitness = globalBestFitness;
+
+                if (context.topology.redraw(iteration)) {
+                    neighbourhoods = context.topology.neighbourhoods(swarm.size(), topologyRandom);
+                    updateGuides();
+                }
+
+                particlesDynamic();
+
+                if (interval > 0 && (iteration + 1) % interval == 0) {
+                    migration.run();
+                }
 
-            particlesDynamic();
+                iterationsDone = iteration + 1;
             
-            listener.onStateChange(new PSOState(iteration, globalBestFitness, lastGlobalBestFitness, 
-                String.format("Improvement: %f%%", 100*((globalBestFitness / lastGlobalBestFitness) - 1.0))));
+                notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.IMPROVEMENT);
             
-            if (checkStopEarly()) {
-                listener.onStateChange(new PSOState(iteration, globalBestFitness, lastGlobalBestFitness, 
-                    "Early stop due to variation threshold"));
+                if (checkStopEarly()) {
+                    notifyState(iteration, globalBestFitness, lastGlobalBestFitness, PSOMessage.EARLY_STOP_VARIATION);
 
-                break;
+                    break;
+                }
             }
+        } finally {
+            finish();
         }
+    }
 
-        try {
-            listener.finish();
+    /**
+     * Starts the PSO optimization process in the common ForkJoinPool.
+     *
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync() {
+        return optimizeAsync(ForkJoinPool.commonPool());
+    }
 
-            // Wait for the listener thread to finish processing
-            listenerThread.join();
-        } catch (InterruptedException e) {
-            listenerThread.interrupt();
+    /**
+     * Starts the PSO optimization process in the executor. The handle gives a copy of the global best found so far
+     * and the fraction of the iterations done, and cancelling it stops the process after the current iteration.
+     *
+     * @param executor where the optimization runs
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync(Executor executor) {
+        return optimizeAsync(executor, new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the PSO optimization process in the executor, limited by the time budget.
+     *
+     * @param executor where the optimization runs
+     * @param budget the time limit of the process, expired when the handle is cancelled
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync(Executor executor, TimeBudget budget) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
         }
+
+        Optimization<T> optimization = new Optimization<>(
+            this::copyGlobalBest,
+            this::progress,
+            budget::expire);
+
+        return optimization.start(executor, () -> {
+            optimize(budget);
+
+            return globalBest;
+        });
+    }
+
+    /**
+     * Copy the global best. The published global best is never changed, so no lock is needed.
+     */
+    private T copyGlobalBest() {
+        return globalBest.copy();
     }
 
     /**
      * Updates the particles' velocities and positions, evaluates their fitness, and updates personal and global bests.
+     * All the particles move toward the global best of the previous iteration, and the global best is updated once,
+     * at the end, so the particles never wait for each other.
+     * In a local topology the particles follow the personal bests of their neighbours, so all the particles move
+     * before any personal best is updated, and the best of each neighbourhood is found once, at the end.
      */
     private void particlesDynamic() {
-        // Parallel processing of particles
-        IntStream.range(0, swarm.size()).parallel().forEach(index -> {
-            T particle = swarm.get(index);
-            
-            // Update velocity
-            updateVelocity(particle);
-            
-            // Update position
-            particle.updatePosition();
-            
-            // Evaluate new position
-            double currentFitness = fitnessFunction.apply(particle);
-            
-            // Update personal best if needed
-            if (currentFitness < particle.getPersonalBestFitness()) {
-                particle.setPersonalBest(particle);
-                particle.setPersonalBestFitness(currentFitness);
-                
-                // Update global best if needed
-                if (currentFitness < globalBestFitness) {
-                    try {
-                        globalBestMutex.acquire();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-
-                    globalBestFitness = currentFitness;
-                    globalBest.assing(particle);
-
-                    globalBestMutex.release();
+        if (neighbourhoods == null) {
+            forEachBlock(this::moveBlock);
+        } else {
+            forEachBlock(this::moveBlockToNeighbourhood);
+            forEachBlock(this::updatePersonalBests);
+        }
+
+        updateGlobalBest();
+        updateGuides();
+    }
+
+    /**
+     * Run the action for each block of contiguous particles, sequentially or in the pool.
+     */
+    private void forEachBlock(IntConsumer action) {
+        int blocks = (swarm.size() + blockSize - 1) / blockSize;
+
+        if (pool == null) {
+            IntStream.range(0, blocks).forEach(action);
+        } else {
+            // Parallel processing of blocks, the stream runs in the pool of the task that starts it
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(action)).join();
+        }
+    }
+
+    /**
+     * Move the particles of a block toward the global best, evaluate them and update their personal bests.
+     */
+    private void moveBlock(int block) {
+        int from = block * blockSize;
+        int to = Math.min(swarm.size(), from + blockSize);
+
+        for (int i = from; i < to; i++) {
+            moveParticle(i, globalBest);
+        }
+
+        fitnessFunction.evaluate(swarm, from, to, fitness);
+
+        for (int i = from; i < to; i++) {
+            updatePersonalBest(i);
+        }
+    }
+
+    /**
+     * Move the particles of a block toward the best of their neighbourhoods and evaluate them, without changing
+     * any personal best.
+     */
+    private void moveBlockToNeighbourhood(int block) {
+        int from = block * blockSize;
+        int to = Math.min(swarm.size(), from + blockSize);
+
+        for (int i = from; i < to; i++) {
+            moveParticle(i, swarm.get(guides[i]).getPersonalBest());
+        }
+
+        fitnessFunction.evaluate(swarm, from, to, fitness);
+    }
+
+    /**
+     * Update the personal bests of the particles of a block.
+     */
+    private void updatePersonalBests(int block) {
+        int from = block * blockSize;
+        int to = Math.min(swarm.size(), from + blockSize);
+
+        for (int i = from; i < to; i++) {
+            updatePersonalBest(i);
+        }
+    }
+
+    /**
+     * Update the velocity and the position of one particle of the swarm.
+     */
+    private void moveParticle(int index, T guide) {
+        T particle = swarm.get(index);
+        
+        // Update velocity, in place when the particle supports it
+        particle.updateVelocity(guide, context.inertiaWeight, context.cognitiveWeight, context.socialWeight, randoms[index]);
+        
+        // Update position
+        particle.updatePosition();
+    }
+
+    /**
+     * Update the personal best of the particle if its current position is better.
+     */
+    private void updatePersonalBest(int index) {
+        T particle = swarm.get(index);
+
+        if (fitness[index] < particle.getPersonalBestFitness()) {
+            particle.setPersonalBest(particle);
+            particle.setPersonalBestFitness(fitness[index]);
+        }
+    }
+
+    /**
+     * Find the best personal best of each neighbourhood, the first neighbour wins a tie.
+     */
+    private void updateGuides() {
+        if (neighbourhoods == null) {
+            return;
+        }
+
+        for (int i = 0; i < guides.length; i++) {
+            int best = neighbourhoods[i][0];
+
+            for (int neighbour : neighbourhoods[i]) {
+                if (swarm.get(neighbour).getPersonalBestFitness() < swarm.get(best).getPersonalBestFitness()) {
+                    best = neighbour;
                 }
             }
-        });
+
+            guides[i] = best;
+        }
     }
 
     /**
-     * Updates the velocity of a particle based on its personal best and the global best.
+     * Publish a copy of the best personal best as the new global best, if it is better. The first
+     * particle wins a tie, so the result does not depend on the order the particles were moved.
+     */
+    private void updateGlobalBest() {
+        int bestIndex = -1;
+        double bestFitness = globalBestFitness;
+
+        for (int i = 0; i < swarm.size(); i++) {
+            double fitness = swarm.get(i).getPersonalBestFitness();
+
+            if (fitness < bestFitness) {
+                bestFitness = fitness;
+                bestIndex = i;
+            }
+        }
+
+        if (bestIndex >= 0) {
+            globalBest = swarm.get(bestIndex).getPersonalBest().copy();
+            globalBestFitness = bestFitness;
+        }
+    }
+
+    /**
+     * Publish a state of the optimization to the listener, using a reusable PSOEvent.
+     */
+    private void notifyState(int iteration, double globalBestFitness, double lastGlobalBestFitness, PSOMessage message) {
+        PSOEvent event = listener.claim();
+
+        if (event != null) {
+            event.set(iteration, globalBestFitness, lastGlobalBestFitness, swarm.size(), message);
+            listener.publish();
+        }
+    }
+
+    /**
+     * Copies of the best personal bests of the swarm, best first.
      *
-     * @param particle the particle whose velocity is to be updated
+     * @param count how many migrants, at most the size of the swarm
      */
-    private void updateVelocity(T particle) {
-        // Get references for cleaner code
-        T personalBest = particle.getPersonalBest();
-        T currentPosition = particle;
-        
-        // Calculate cognitive and social components
-        double[] cognitiveComponent = particle.calculateComponent(
-            personalBest, currentPosition, context.cognitiveWeight, random);
-        double[] socialComponent = particle.calculateComponent(
-            globalBest, currentPosition, context.socialWeight, random);
-        
-        // Update velocity for each dimension
-        double[] newVelocity = new double[particle.getVelocity().length];
-        for (int i = 0; i < newVelocity.length; i++) {
-            newVelocity[i] = context.inertiaWeight * particle.getVelocity()[i] 
-                          + cognitiveComponent[i] 
-                          + socialComponent[i];
+    List<Migrant<T>> emigrants(int count) {
+        return IntStream.range(0, swarm.size()).boxed()
+            .sorted(Comparator.comparingDouble(i -> swarm.get(i).getPersonalBestFitness()))
+            .limit(count)
+            .map(i -> new Migrant<>(swarm.get(i).getPersonalBest().copy(), swarm.get(i).getPersonalBestFitness()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Give the personal bests of the migrants to the particles with the worst personal bests, that move toward
+     * them from their current positions. The global best is updated if a migrant is better.
+     */
+    void immigrate(List<Migrant<T>> migrants) {
+        List<Integer> worst = IntStream.range(0, swarm.size()).boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> swarm.get(i).getPersonalBestFitness()).reversed())
+            .limit(migrants.size())
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < worst.size(); i++) {
+            T particle = swarm.get(worst.get(i));
+            Migrant<T> migrant = migrants.get(i);
+
+            if (migrant.fitness() < particle.getPersonalBestFitness()) {
+                particle.setPersonalBest(migrant.particle());
+                particle.setPersonalBestFitness(migrant.fitness());
+            }
         }
-        
-        particle.setVelocity(newVelocity);
+
+        updateGlobalBest();
+        updateGuides();
+    }
+
+    /**
+     * The fraction of the iterations done.
+     */
+    double progress() {
+        return (double) iterationsDone / context.maxIterations;
     }
 
     public T getGlobalBest() {
@@ -16,6 +16,10 @@
  */
 package drevo.stochastic.pso;
 
+import java.util.OptionalLong;
+
+import drevo.stochastic.RandomSource;
+
 /**
  * Represents the context for a Particle Swarm Optimization (PSO) algorithm.
  * This record encapsulates the parameters required to configure the PSO algorithm.
@@ -27,6 +31,8 @@ public class PSOContext {
     final double socialWeight; // Weight applied to the global best position of the swarm
     final double variationThreshold; // Threshold for variation in particle positions to trigger early stopping
     final long variationPersitence; // Number of iterations a variation must persist to trigger early stopping
+    final OptionalLong seed; // Seed of the random numbers of the particles, empty for a random seed
+    final Topology topology; // Which personal bests guide each particle
 
     /**
      * Creates a new PSOContext with the specified parameters.
@@ -37,12 +43,70 @@ public class PSOContext {
      * @param socialWeight the weight applied to the global best position of the swarm
      */
     public PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight, double variationThreshold, long variationPersitence) {
+        this(maxIterations, inertiaWeight, cognitiveWeight, socialWeight, variationThreshold, variationPersitence, Topology.global(), OptionalLong.empty());
+    }
+
+    /**
+     * Creates a new PSOContext whose particles follow the best of their neighbourhoods in the topology,
+     * instead of the best of the swarm.
+     *
+     * @param maxIterations the maximum number of iterations for the PSO algorithm
+     * @param inertiaWeight the weight applied to the particle's previous velocity
+     * @param cognitiveWeight the weight applied to the particle's personal best position
+     * @param socialWeight the weight applied to the best position of the neighbourhood
+     * @param variationThreshold the variation of the global best below which the optimization can stop
+     * @param variationPersitence how many iterations the variation must stay below the threshold to stop
+     * @param topology the neighbourhoods of the particles
+     */
+    public PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight, double variationThreshold, long variationPersitence, Topology topology) {
+        this(maxIterations, inertiaWeight, cognitiveWeight, socialWeight, variationThreshold, variationPersitence, topology, OptionalLong.empty());
+    }
+
+    /**
+     * Creates a new PSOContext with a topology whose optimizations are repeated exactly, the random
+     * topologies draw their neighbourhoods from the seed too.
+     *
+     * @param maxIterations the maximum number of iterations for the PSO algorithm
+     * @param inertiaWeight the weight applied to the particle's previous velocity
+     * @param cognitiveWeight the weight applied to the particle's personal best position
+     * @param socialWeight the weight applied to the best position of the neighbourhood
+     * @param variationThreshold the variation of the global best below which the optimization can stop
+     * @param variationPersitence how many iterations the variation must stay below the threshold to stop
+     * @param topology the neighbourhoods of the particles
+     * @param seed the seed of the random numbers of the particles
+     */
+    public PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight, double variationThreshold, long variationPersitence, Topology topology, long seed) {
+        this(maxIterations, inertiaWeight, cognitiveWeight, socialWeight, variationThreshold, variationPersitence, topology, OptionalLong.of(seed));
+    }
+
+    /**
+     * Creates a new PSOContext whose optimizations are repeated exactly. With the same seed, the same initial swarm
+     * and a fitness function without side effects, a PSO or DensePSO that ends by its iterations or its early stop,
+     * and not by a time budget, gives the same trajectory and result, sequential or in a pool of any size:
+     * each particle draws from its own stream of the seed and the global best is reduced in the order of the swarm.
+     *
+     * @param maxIterations the maximum number of iterations for the PSO algorithm
+     * @param inertiaWeight the weight applied to the particle's previous velocity
+     * @param cognitiveWeight the weight applied to the particle's personal best position
+     * @param socialWeight the weight applied to the global best position of the swarm
+     * @param variationThreshold the variation of the global best below which the optimization can stop
+     * @param variationPersitence how many iterations the variation must stay below the threshold to stop
+     * @param seed the seed of the random numbers of the particles
+     */
+    public PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight, double variationThreshold, long variationPersitence, long seed) {
+        this(maxIterations, inertiaWeight, cognitiveWeight, socialWeight, variationThreshold, variationPersitence, Topology.global(), OptionalLong.of(seed));
+    }
+
+    private PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight, double variationThreshold, long variationPersitence, Topology topology, OptionalLong seed) {
         if (maxIterations <= 0) {
             throw new IllegalArgumentException("maxIterations must be greater than 0");
         }
         if (inertiaWeight < 0 || cognitiveWeight < 0 || socialWeight < 0) {
             throw new IllegalArgumentException("Weights must be non-negative");
         }
+        if (topology == null) {
+            throw new IllegalArgumentException("Topology cannot be null");
+        }
 
         this.maxIterations = maxIterations;
         this.inertiaWeight = inertiaWeight;
@@ -50,6 +114,8 @@ public class PSOContext {
         this.socialWeight = socialWeight;
         this.variationThreshold = variationThreshold;
         this.variationPersitence = variationPersitence;
+        this.seed = seed;
+        this.topology = topology;
     }
 
     /**
@@ -63,4 +129,18 @@ public class PSOContext {
     public PSOContext(int maxIterations, double inertiaWeight, double cognitiveWeight, double socialWeight) {
         this(maxIterations, inertiaWeight, cognitiveWeight, socialWeight, 0.0, Long.MAX_VALUE);
     }
+
+    /**
+     * The neighbourhoods of the particles, global by default.
+     */
+    public Topology topology() {
+        return topology;
+    }
+
+    /**
+     * A new source of random numbers for an optimization, with the seed of the context if it has one.
+     */
+    public RandomSource randomSource() {
+        return seed.isPresent() ? new RandomSource(seed.getAsLong()) : new RandomSource();
+    }
 }
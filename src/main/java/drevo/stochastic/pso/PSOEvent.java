@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import drevo.stochastic.state.ReusableStateChange;
+
+/**
+ * The reusable version of PSOState. PSO fills the same instances during all the
+ * optimization, so a handler must read the values during the handle call or keep
+ * a {@link #snapshot()}.
+ */
+public class PSOEvent implements ReusableStateChange<PSOEvent> {
+    private int iterations;
+    private double globalBestFitness;
+    private double lastGlobalBestFitness;
+    private int swarmSize;
+    private PSOMessage code;
+
+    /**
+     * Fill the event with the values of the optimization.
+     */
+    public PSOEvent set(int iterations, double globalBestFitness, double lastGlobalBestFitness, int swarmSize, PSOMessage code) {
+        this.iterations = iterations;
+        this.globalBestFitness = globalBestFitness;
+        this.lastGlobalBestFitness = lastGlobalBestFitness;
+        this.swarmSize = swarmSize;
+        this.code = code;
+
+        return this;
+    }
+
+    public int iterations() { return iterations; }
+
+    public double globalBestFitness() { return globalBestFitness; }
+
+    public double lastGlobalBestFitness() { return lastGlobalBestFitness; }
+
+    public int swarmSize() { return swarmSize; }
+
+    public PSOMessage code() { return code; }
+
+    /**
+     * The text of the message, rendered in each call.
+     */
+    public String message() { return code.render(this); }
+
+    @Override
+    public void assign(PSOEvent other) {
+        set(other.iterations, other.globalBestFitness, other.lastGlobalBestFitness, other.swarmSize, other.code);
+    }
+
+    @Override
+    public PSOState snapshot() {
+        return new PSOState(iterations, globalBestFitness, lastGlobalBestFitness, message());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+/**
+ * The messages of the PSO process. The text of a message is only rendered when it is
+ * asked, from the values of the PSOEvent it belongs.
+ */
+public enum PSOMessage {
+    INITIALIZE_SWARM, START, IMPROVEMENT, EARLY_STOP_VARIATION, EARLY_STOP_TIME;
+
+    /**
+     * Render the text of the message.
+     *
+     * @param event The event with the values of the message.
+     * @return The text of the message.
+     */
+    public String render(PSOEvent event) {
+        switch (this) {
+            case INITIALIZE_SWARM:
+                return String.format("Initialize swarm with %d particles...", event.swarmSize());
+            case START:
+                return String.format("Initialize swarm with %.5f global best value.", event.globalBestFitness());
+            case IMPROVEMENT:
+                return String.format("Improvement: %f%%", 100*((event.globalBestFitness() / event.lastGlobalBestFitness()) - 1.0));
+            case EARLY_STOP_TIME:
+                return "Early stop due to time limit";
+            default:
+                return "Early stop due to variation threshold";
+        }
+    }
+}
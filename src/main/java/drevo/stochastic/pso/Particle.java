@@ -63,4 +63,36 @@ public interface Particle<T extends Particle<T>> {
     
     // Calculate component for velocity update
     double[] calculateComponent(T guide, T current, double weight, Random random);
+
+    /**
+     * Update the velocity toward the personal best and the guide, usually the global best:
+     * v = inertiaWeight * v + cognitive component of the personal best + social component of the guide.
+     * The default implementation is a fallback for the particles that only implement calculateComponent: it
+     * builds the components and sets a new velocity, so it allocates three arrays in each call. A particle that
+     * keeps its velocity in an array should override it to write the new velocity in place, drawing the random
+     * numbers in the same order: first all the cognitive ones, then all the social ones, as
+     * {@link ContinuousParticle} does.
+     *
+     * @param guide the best position known by the neighbourhood of the particle
+     * @param inertiaWeight the weight of the current velocity
+     * @param cognitiveWeight the weight of the personal best
+     * @param socialWeight the weight of the guide
+     * @param random the source of the random factors
+     */
+    @SuppressWarnings("unchecked")
+    default void updateVelocity(T guide, double inertiaWeight, double cognitiveWeight, double socialWeight, Random random) {
+        T current = (T) this;
+
+        double[] cognitiveComponent = calculateComponent(getPersonalBest(), current, cognitiveWeight, random);
+        double[] socialComponent = calculateComponent(guide, current, socialWeight, random);
+
+        double[] velocity = getVelocity();
+        double[] newVelocity = new double[velocity.length];
+
+        for (int i = 0; i < newVelocity.length; i++) {
+            newVelocity[i] = inertiaWeight * velocity[i] + cognitiveComponent[i] + socialComponent[i];
+        }
+
+        setVelocity(newVelocity);
+    }
 }
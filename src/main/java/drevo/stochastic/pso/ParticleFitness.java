@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The fitness of a single particle as a primitive double, lower is better, so the evaluations do not box
+ * their results. It is a BatchFitness that evaluates its block one particle at a time, so it is accepted
+ * by the constructors of PSO that take a BatchFitness, and PSO evaluates it in blocks of one particle,
+ * balancing the threads of the pool as with a Function:
+ * <pre>
+ * ParticleFitness&lt;MyParticle&gt; fitness = particle -&gt; energy(particle);
+ * PSO&lt;MyParticle&gt; pso = new PSO&lt;&gt;(context, fitness, handler, swarm);
+ * </pre>
+ *
+ * A lambda written directly in the call of the constructor is typed as a {@code Function<T, Double>},
+ * so the function must be declared as a ParticleFitness, or cast to it, to avoid the boxing.
+ */
+@FunctionalInterface
+public interface ParticleFitness<T extends Particle<T>> extends ToDoubleFunction<T>, BatchFitness<T> {
+    @Override
+    default void evaluate(List<T> particles, int from, int to, double[] fitness) {
+        for (int i = from; i < to; i++) {
+            fitness[i] = applyAsDouble(particles.get(i));
+        }
+    }
+}
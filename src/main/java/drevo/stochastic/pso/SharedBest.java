@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best particle found by the particles of a swarm that move at the same time. The particle of a
+ * candidate is a copy never changed after shared, so any thread can read it.
+ */
+class SharedBest<T extends Particle<T>> {
+    record Candidate<T>(double fitness, T particle) {}
+
+    private final AtomicReference<Candidate<T>> best;
+
+    SharedBest(double fitness, T particle) {
+        this.best = new AtomicReference<>(new Candidate<>(fitness, particle.copy()));
+    }
+
+    /**
+     * Offer a particle, it is copied and shared only if it is better than the shared one.
+     *
+     * @param fitness The fitness of the particle.
+     * @param particle The particle.
+     * @return true if the particle became the shared one.
+     */
+    boolean offer(double fitness, T particle) {
+        Candidate<T> current = best.get();
+
+        if (!(fitness < current.fitness())) {
+            return false;
+        }
+
+        Candidate<T> candidate = new Candidate<>(fitness, particle.copy());
+
+        while (fitness < current.fitness()) {
+            if (best.compareAndSet(current, candidate)) {
+                return true;
+            }
+
+            current = best.get();
+        }
+
+        return false;
+    }
+
+    Candidate<T> get() {
+        return best.get();
+    }
+}
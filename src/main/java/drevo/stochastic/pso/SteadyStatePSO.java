@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import drevo.stochastic.Optimization;
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.StateChangeHandler;
+import drevo.stochastic.state.StateChangeListener;
+
+/**
+ * <p>An asynchronous, or steady-state, PSO. There is no barrier between the iterations: each particle
+ * moves again as soon as its last evaluation completes, toward the latest global best, and offers its
+ * personal best to the global best, that is replaced with a compare and set. When the evaluations of the
+ * particles take very different times, no thread waits for the slowest particle of an iteration.
+ * The particles ready to move wait in a queue, so the threads of the pool take them in the order
+ * their evaluations completed and no particle moves more often than the others.
+ *
+ * <p>The optimization does the evaluations of maxIterations iterations of the swarm, an iteration is
+ * counted each time as many evaluations as particles complete, and the state changes and the early stop
+ * are checked by the thread of optimize at these counts. In parallel the particles do not move in the same
+ * order in every run, so a seeded context does not repeat the result, only the sequential mode does.
+ * The particles follow only the global best, the context must have the global topology.
+ */
+public class SteadyStatePSO<T extends Particle<T>> {
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10); // The longest wait to check the time budget
+
+    private final PSOContext context;
+
+    private final Function<T, Double> fitnessFunction;
+    private final StateChangeListener listener;
+    private final List<T> swarm;
+    private final ForkJoinPool pool;
+
+    private final Random[] randoms; // The stream of random numbers of each particle
+    private final long maxEvaluations;
+
+    private SharedBest<T> globalBest;
+    private double lastGlobalBestFitness = Double.MAX_VALUE;
+
+    private final AtomicLong started = new AtomicLong(); // Evaluations started by the particles
+    private final AtomicLong completed = new AtomicLong(); // Evaluations completed by the particles
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean stopped = false;
+    private volatile Thread coordinator; // The thread of optimize, woken at each iteration
+    private final ConcurrentLinkedQueue<Integer> ready = new ConcurrentLinkedQueue<>(); // The particles ready to move
+    private CountDownLatch running; // The workers that still move particles
+    private final AtomicInteger active = new AtomicInteger(); // The workers inside work()
+
+    private long persitenceCount = 0; // Count of iterations with no improvement
+
+    private volatile int iterationsDone = 0; // Read by the handle of an asynchronous optimization
+
+    /**
+     * Constructs a SteadyStatePSO instance that moves the particles in the common ForkJoinPool.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param initialSwarm the initial swarm of particles
+     */
+    public SteadyStatePSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, new StateChangeContext(), ForkJoinPool.commonPool(), initialSwarm);
+    }
+
+    /**
+     * Constructs a SteadyStatePSO instance that moves the particles in the pool, or sequentially in the thread
+     * that calls optimize when the pool is null, one particle after the other with the latest global best.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles move, or null to move them sequentially
+     * @param initialSwarm the initial swarm of particles
+     */
+    public SteadyStatePSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, List<T> initialSwarm) {
+        this(context, fitnessFunction, handler, stateContext, pool, context == null ? null : context.randomSource(), initialSwarm);
+    }
+
+    /**
+     * Constructs a SteadyStatePSO instance whose particles draw their random numbers from their own streams of
+     * the source, split in the order of the swarm.
+     *
+     * @param context the PSO context containing configuration parameters
+     * @param fitnessFunction the function to evaluate the fitness of particles
+     * @param handler the state change handler to process state changes, or null to ignore them
+     * @param stateContext how the state changes are delivered to the handler
+     * @param pool where the particles move, or null to move them sequentially
+     * @param randomSource where the streams of random numbers of the particles come from
+     * @param initialSwarm the initial swarm of particles
+     */
+    public SteadyStatePSO(PSOContext context, Function<T, Double> fitnessFunction, StateChangeHandler handler, StateChangeContext stateContext,
+            ForkJoinPool pool, RandomSource randomSource, List<T> initialSwarm) {
+        if (context == null) {
+            throw new IllegalArgumentException("PSOContext cannot be null");
+        }
+        if (!(context.topology instanceof Topology.Global)) {
+            throw new IllegalArgumentException("SteadyStatePSO only follows the global topology");
+        }
+        if (fitnessFunction == null) {
+            throw new IllegalArgumentException("Fitness function cannot be null");
+        }
+        if (stateContext == null) {
+            throw new IllegalArgumentException("StateChangeContext cannot be null");
+        }
+        if (randomSource == null) {
+            throw new IllegalArgumentException("RandomSource cannot be null");
+        }
+        if (initialSwarm == null || initialSwarm.isEmpty()) {
+            throw new IllegalArgumentException("Initial swarm cannot be null or empty");
+        }
+        if (initialSwarm.stream().anyMatch(p -> p == null)) {
+            throw new IllegalArgumentException("Initial swarm cannot contain null particles");
+        }
+
+        this.context = context;
+        this.fitnessFunction = fitnessFunction;
+        this.listener = new StateChangeListener(handler, stateContext, PSOEvent::new);
+        this.swarm = new ArrayList<>(initialSwarm);
+        this.pool = pool;
+        this.maxEvaluations = (long) context.maxIterations * swarm.size();
+
+        this.randoms = new Random[swarm.size()];
+
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = randomSource.random();
+        }
+
+        listener.start();
+
+        try {
+            initializeSwarm();
+        } catch (RuntimeException | Error e) {
+            // The optimization will never run, so the listener must not wait for it.
+            finish();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Finish the listener and wait for it to process the state changes already published.
+     */
+    private void finish() {
+        listener.finish();
+
+        try {
+            // Wait for the listener to finish processing
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Initializes the swarm by evaluating each particle's fitness and setting their personal bests.
+     * Also determines the global best particle based on fitness.
+     */
+    private void initializeSwarm() {
+        notifyState(0, 0.0, 0.0, PSOMessage.INITIALIZE_SWARM);
+
+        int bestIndex = 0;
+
+        for (int i = 0; i < swarm.size(); i++) {
+            T particle = swarm.get(i);
+            double fitness = fitnessFunction.apply(particle);
+            particle.setPersonalBest(particle.copy());
+            particle.setPersonalBestFitness(fitness);
+
+            if (fitness < swarm.get(bestIndex).getPersonalBestFitness()) {
+                bestIndex = i;
+            }
+        }
+
+        T best = swarm.get(bestIndex);
+        globalBest = new SharedBest<>(best.getPersonalBestFitness(), best.getPersonalBest());
+    }
+
+    /**
+     * Starts the PSO optimization process.
+     */
+    public void optimize() {
+        optimize(new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the PSO optimization process, that stops the particles when the time budget is over.
+     * The evaluations already running complete before it returns.
+     *
+     * @param budget the time limit of the process
+     */
+    public void optimize(TimeBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        coordinator = Thread.currentThread();
+
+        try {
+            double fitness = getGlobalBestFitness();
+            notifyState(0, fitness, fitness, PSOMessage.START);
+
+            if (pool == null) {
+                moveSequentially(budget);
+            } else {
+                moveInPool(budget);
+            }
+        } finally {
+            finish();
+        }
+
+        Throwable cause = failure.get();
+
+        if (cause instanceof RuntimeException exception) {
+            throw exception;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+    }
+
+    /**
+     * Move the particles one after the other, until all of them stop.
+     */
+    private void moveSequentially(TimeBudget budget) {
+        boolean moving = true;
+
+        while (moving) {
+            moving = false;
+
+            for (int i = 0; i < swarm.size(); i++) {
+                moving |= step(i);
+            }
+
+            checkIteration(budget);
+        }
+    }
+
+    /**
+     * Start as many workers as the parallelism of the pool and wait for all of them to stop, checking
+     * the iterations each time the particles complete one. The wait is a managed block, so when optimize
+     * runs in the same pool the pool adds a thread for the workers. Once the particles are stopped, the
+     * workers that did not start yet are not waited for, they return without moving any particle.
+     */
+    private void moveInPool(TimeBudget budget) {
+        int workers = Math.min(swarm.size(), pool.getParallelism());
+
+        for (int i = 0; i < swarm.size(); i++) {
+            ready.offer(i);
+        }
+
+        running = new CountDownLatch(workers);
+
+        for (int i = 0; i < workers; i++) {
+            pool.execute(this::work);
+        }
+
+        ForkJoinPool.ManagedBlocker pause = new Pause();
+
+        while (!isDone()) {
+            try {
+                ForkJoinPool.managedBlock(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            checkIteration(budget);
+        }
+
+        checkIteration(budget);
+    }
+
+    /**
+     * Move the particles that are ready, putting each one back at the end of the queue after it moves.
+     * A worker puts its particle back before it takes the next, so the queue is only empty when the particles stop.
+     */
+    private void work() {
+        active.incrementAndGet();
+
+        try {
+            Integer index;
+
+            while ((index = ready.poll()) != null) {
+                if (step(index)) {
+                    ready.offer(index);
+                }
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+            stopped = true;
+        }
+
+        active.decrementAndGet();
+        running.countDown();
+        LockSupport.unpark(coordinator);
+    }
+
+    /**
+     * Check if all the workers stopped, or if the particles are stopped and no worker is moving one.
+     * The flag is written before the workers are read, and a worker is counted before it reads the flag,
+     * so a worker that starts later never moves a particle.
+     */
+    private boolean isDone() {
+        return running.getCount() == 0 || (stopped && active.get() == 0);
+    }
+
+    /**
+     * The wait of the thread of optimize for the workers, up to the time to check the iterations again.
+     */
+    private class Pause implements ForkJoinPool.ManagedBlocker {
+        @Override
+        public boolean block() {
+            LockSupport.parkNanos(SteadyStatePSO.this, PARK_NANOS);
+
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return isDone();
+        }
+    }
+
+    /**
+     * Move one particle toward the latest global best, update its personal best and offer it as the global best.
+     *
+     * @return false if the particle must stop
+     */
+    private boolean step(int index) {
+        if (stopped || started.getAndIncrement() >= maxEvaluations) {
+            return false;
+        }
+
+        T particle = swarm.get(index);
+
+        particle.updateVelocity(globalBest.get().particle(), context.inertiaWeight, context.cognitiveWeight, context.socialWeight, randoms[index]);
+        particle.updatePosition();
+
+        double fitness = fitnessFunction.apply(particle);
+
+        if (fitness < particle.getPersonalBestFitness()) {
+            particle.setPersonalBest(particle);
+            particle.setPersonalBestFitness(fitness);
+
+            globalBest.offer(fitness, particle);
+        }
+
+        if (completed.incrementAndGet() % swarm.size() == 0) {
+            LockSupport.unpark(coordinator);
+        }
+
+        return true;
+    }
+
+    /**
+     * Publish the state of the iterations completed since the last check, and stop the particles
+     * when the variation or the time budget say so. Only the thread of optimize calls it.
+     */
+    private void checkIteration(TimeBudget budget) {
+        if (stopped) {
+            return;
+        }
+
+        int iteration = (int) (completed.get() / swarm.size());
+
+        if (iteration > iterationsDone) {
+            double fitness = getGlobalBestFitness();
+
+            notifyState(iteration - 1, fitness, lastGlobalBestFitness, PSOMessage.IMPROVEMENT);
+
+            if (checkStopEarly(fitness, iteration - iterationsDone)) {
+                notifyState(iteration - 1, fitness, lastGlobalBestFitness, PSOMessage.EARLY_STOP_VARIATION);
+                stopped = true;
+            }
+
+            lastGlobalBestFitness = fitness;
+            iterationsDone = iteration;
+        }
+
+        if (!stopped && iterationsDone < context.maxIterations && budget.isExpired()) {
+            notifyState(iterationsDone, getGlobalBestFitness(), lastGlobalBestFitness, PSOMessage.EARLY_STOP_TIME);
+            stopped = true;
+        }
+    }
+
+    /**
+     * Starts the PSO optimization process in the common ForkJoinPool.
+     *
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync() {
+        return optimizeAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Starts the PSO optimization process in the executor, that waits for the particles. The handle gives a copy of
+     * the global best found so far and the fraction of the evaluations done, and cancelling it stops the particles.
+     *
+     * @param executor where the optimization runs
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync(Executor executor) {
+        return optimizeAsync(executor, new TimeBudget(Long.MAX_VALUE));
+    }
+
+    /**
+     * Starts the PSO optimization process in the executor, limited by the time budget.
+     *
+     * @param executor where the optimization runs
+     * @param budget the time limit of the process, expired when the handle is cancelled
+     * @return the handle of the running optimization, with the global best as result
+     */
+    public Optimization<T> optimizeAsync(Executor executor, TimeBudget budget) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("TimeBudget cannot be null");
+        }
+
+        Optimization<T> optimization = new Optimization<>(
+            () -> getGlobalBest().copy(),
+            () -> (double) completed.get() / maxEvaluations,
+            budget::expire);
+
+        return optimization.start(executor, () -> {
+            optimize(budget);
+
+            return getGlobalBest();
+        });
+    }
+
+    /**
+     * Publish a state of the optimization to the listener, using a reusable PSOEvent.
+     */
+    private void notifyState(int iteration, double globalBestFitness, double lastGlobalBestFitness, PSOMessage message) {
+        PSOEvent event = listener.claim();
+
+        if (event != null) {
+            event.set(iteration, globalBestFitness, lastGlobalBestFitness, swarm.size(), message);
+            listener.publish();
+        }
+    }
+
+    /**
+     * The global best, a copy never changed after it is shared.
+     */
+    public T getGlobalBest() {
+        return globalBest.get().particle();
+    }
+
+    public double getGlobalBestFitness() {
+        return globalBest.get().fitness();
+    }
+
+    /**
+     * How many evaluations the particles completed, besides the evaluation of the initial swarm.
+     */
+    public long getEvaluations() {
+        return completed.get();
+    }
+
+    /**
+     * Check if the variation of the global best stayed below the threshold for long enough.
+     *
+     * @param fitness the global best fitness of the last iteration checked
+     * @param iterations how many iterations were completed since the last check
+     */
+    private boolean checkStopEarly(double fitness, int iterations) {
+        double variation = Math.abs(fitness - this.lastGlobalBestFitness);
+
+        if (variation < context.variationThreshold) {
+            persitenceCount += iterations;
+
+            return (persitenceCount >= context.variationPersitence);
+        } else {
+            persitenceCount = 0;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Topology define which personal bests guide each particle of the swarm, they are:
+ * <pre>
+ * - global
+ * All the particles follow the best of the swarm, the classic PSO and the default one. It converges fast,
+ * but often too early in multimodal functions.
+ * - ring
+ * Each particle follows the best of the k particles before and after it in the swarm.
+ * - vonNeumann
+ * The swarm is a grid wrapped as a torus and each particle follows the best of itself and its four neighbours,
+ * up, down, left and right.
+ * - randomDynamic
+ * Each particle informs itself and other k random particles, drawn again every period iterations.
+ * </pre>
+ *
+ * In the local topologies, the best of each neighbourhood is found once for each iteration, from the personal
+ * bests of the last one, so the particles never synchronize on a shared best while they move. A topology does
+ * not keep state, so the same topology can be used by many optimizations at the same time.
+ */
+public interface Topology {
+    /**
+     * Compute the neighbourhoods of a swarm.
+     *
+     * @param size how many particles the swarm has
+     * @param random the random numbers of the topology
+     * @return the indexes of the particles whose personal bests guide each particle, including itself,
+     *         or null when all the particles follow the global best
+     */
+    int[][] neighbourhoods(int size, RandomGenerator random);
+
+    /**
+     * If the neighbourhoods are computed again before the iteration, the static topologies are computed only once.
+     */
+    default boolean redraw(int iteration) {
+        return false;
+    }
+
+    static Topology global() {
+        return new Global();
+    }
+
+    static Topology ring(int k) {
+        return new Ring(k);
+    }
+
+    static Topology vonNeumann() {
+        return new VonNeumann();
+    }
+
+    static Topology randomDynamic(int informants, int period) {
+        return new RandomDynamic(informants, period);
+    }
+
+    record Global() implements Topology {
+        @Override
+        public int[][] neighbourhoods(int size, RandomGenerator random) {
+            return null;
+        }
+    }
+
+    record Ring(int k) implements Topology {
+        public Ring {
+            if (k <= 0) {
+                throw new IllegalArgumentException("The neighbours of a ring must have non null positive values");
+            }
+        }
+
+        @Override
+        public int[][] neighbourhoods(int size, RandomGenerator random) {
+            int width = Math.min(size, 2 * k + 1);
+            int[][] neighbourhoods = new int[size][width];
+
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < width; j++) {
+                    neighbourhoods[i][j] = Math.floorMod(i - k + j, size);
+                }
+            }
+
+            return neighbourhoods;
+        }
+    }
+
+    record VonNeumann() implements Topology {
+        @Override
+        public int[][] neighbourhoods(int size, RandomGenerator random) {
+            int columns = (int) Math.ceil(Math.sqrt(size));
+            int[][] neighbourhoods = new int[size][];
+
+            for (int i = 0; i < size; i++) {
+                neighbourhoods[i] = new int[] {
+                    i,
+                    Math.floorMod(i - columns, size),
+                    Math.floorMod(i + columns, size),
+                    Math.floorMod(i - 1, size),
+                    Math.floorMod(i + 1, size)
+                };
+            }
+
+            return neighbourhoods;
+        }
+    }
+
+    record RandomDynamic(int informants, int period) implements Topology {
+        public RandomDynamic {
+            if (informants <= 0 || period <= 0) {
+                throw new IllegalArgumentException("Informants and period must have non null positive values");
+            }
+        }
+
+        @Override
+        public int[][] neighbourhoods(int size, RandomGenerator random) {
+            int[][] informed = new int[size][informants];
+            int[] counts = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < informants; j++) {
+                    informed[i][j] = random.nextInt(size);
+                    counts[informed[i][j]]++;
+                }
+            }
+
+            int[][] neighbourhoods = new int[size][];
+
+            for (int i = 0; i < size; i++) {
+                neighbourhoods[i] = new int[counts[i] + 1];
+                neighbourhoods[i][0] = i;
+                counts[i] = 1;
+            }
+
+            for (int i = 0; i < size; i++) {
+                for (int target : informed[i]) {
+                    neighbourhoods[target][counts[target]++] = i;
+                }
+            }
+
+            return neighbourhoods;
+        }
+
+        @Override
+        public boolean redraw(int iteration) {
+            return iteration > 0 && iteration % period == 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+/**
+ * DeliveryPolicy define which state changes of an optimization process reach the StateChangeHandler, they are:
+ * <pre>
+ * - sampling
+ * Only one of each sampling state changes is published, 1 means every state change.
+ * - maxRate
+ * The maximum number of state changes published per second, 0 means no limit.
+ * - backlog
+ * What to do with the state changes waiting in the channel for the handler.
+ * </pre>
+ *
+ * The sampling and the rate are applied in the optimization thread, before the state change is
+ * filled, so the state changes left out cost almost nothing. Note that they also apply to the
+ * messages of start and finish of the process.
+ */
+public class DeliveryPolicy {
+    public final int sampling;
+    public final int maxRate;
+    public final BacklogStrategy backlog;
+
+    public DeliveryPolicy(int sampling, int maxRate, BacklogStrategy backlog) {
+        if (sampling <= 0) {
+            throw new IllegalArgumentException("Sampling must have non null positive values.");
+        }
+
+        if (maxRate < 0) {
+            throw new IllegalArgumentException("Max rate must have positive values, or zero for no limit.");
+        }
+
+        if (backlog == null) {
+            throw new IllegalArgumentException("Backlog strategy cannot be null.");
+        }
+
+        this.sampling = sampling;
+        this.maxRate = maxRate;
+        this.backlog = backlog;
+    }
+
+    /**
+     * Every state change is delivered, the optimization waits when the channel is full.
+     */
+    public static DeliveryPolicy all() {
+        return new DeliveryPolicy(1, 0, BacklogStrategy.WAIT);
+    }
+
+    /**
+     * Deliver one of each n state changes.
+     */
+    public static DeliveryPolicy everyNth(int n) {
+        return new DeliveryPolicy(n, 0, BacklogStrategy.WAIT);
+    }
+
+    /**
+     * Deliver at most k state changes per second.
+     */
+    public static DeliveryPolicy atMostPerSecond(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Max rate must have non null positive values.");
+        }
+
+        return new DeliveryPolicy(1, k, BacklogStrategy.WAIT);
+    }
+
+    /**
+     * Deliver only the latest state change when the handler is ready for it.
+     */
+    public static DeliveryPolicy latest() {
+        return new DeliveryPolicy(1, 0, BacklogStrategy.LATEST);
+    }
+
+    /**
+     * Drop the oldest state change when the channel is full.
+     */
+    public static DeliveryPolicy dropOldest() {
+        return new DeliveryPolicy(1, 0, BacklogStrategy.DROP_OLDEST);
+    }
+
+    public int sampling() { return sampling; }
+
+    public int maxRate() { return maxRate; }
+
+    public BacklogStrategy backlog() { return backlog; }
+
+    @Override
+    public String toString() {
+        return "{DeliveryPolicy: {" +
+                    "'sampling': " + sampling +
+                    ", 'maxRate': " + maxRate +
+                    ", 'backlog': '" + backlog + "'" +
+                "}";
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+/**
+ * <p>A mutable state change, pre-allocated as a slot of a {@link StateChangeChannel} and
+ * reused for every state published through it, so publishing a state does not create objects.
+ *
+ * <p>A handler receiving a reusable state change may only read it during
+ * {@link StateChangeHandler#handleStateChange(StateChange)}, after that the same object is
+ * filled with the next state. To keep it, use {@link #snapshot()}.
+ */
+public interface ReusableStateChange<E extends ReusableStateChange<E>> extends StateChange {
+    /**
+     * Copy all the values from another state change of the same type.
+     *
+     * @param other The state change to copy from.
+     */
+    void assign(E other);
+
+    /**
+     * Create an immutable copy of the current values of this state change.
+     *
+     * @return The immutable state change.
+     */
+    StateChange snapshot();
+}
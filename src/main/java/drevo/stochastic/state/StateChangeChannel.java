@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * <p>A bounded ring buffer that carries state changes from one producer, the optimization
+ * process, to one consumer, the listener. There is no lock in the way of the state changes,
+ * the producer only moves the tail and the consumer only moves the head of the ring.
+ *
+ * <p>When the channel is full the producer waits for room and when it is empty the consumer
+ * waits for new state changes, both using the {@link WaitStrategy} of the channel. After
+ * closed, the channel does not accept new state changes, but the consumer still receive the
+ * ones already published. With a {@link BacklogStrategy} other than WAIT the producer never
+ * waits, it drops the oldest state change to make room, and the consumer takes it back from
+ * the producer with a compare and set of the head.
+ *
+ * <p>A channel created with a factory of {@link ReusableStateChange} works as a pool of slots:
+ * every slot is allocated when the channel is created, the producer {@link #claim()} the next
+ * free slot, fills it and {@link #publish()} it, and the consumer receives always the same
+ * object filled with the values of the oldest published slot. In this way no object is created
+ * to carry a state change.
+ *
+ * <p>Only one thread may publish and only one thread may consume at the same time.
+ */
+public class StateChangeChannel {
+    private static final long PARK_NANOS = 100_000L;
+
+    private final StateChange[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final BacklogStrategy backlog;
+
+    // The object handed to the consumer when the channel works as a pool of slots.
+    private final ReusableStateChange<?> current;
+
+    // Next sequence to be consumed and next sequence to be published.
+    private final AtomicLong head = new AtomicLong(0);
+    private final AtomicLong tail = new AtomicLong(0);
+    private volatile boolean closed = false;
+
+    // Only used by WaitStrategy.BLOCK
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger(0);
+
+    /**
+     * Create a channel able to hold at least capacity state changes.
+     *
+     * @param capacity The minimal number of state changes the channel holds, it is rounded up to a power of two.
+     * @param waitStrategy How producer and consumer wait for each other.
+     */
+    public StateChangeChannel(int capacity, WaitStrategy waitStrategy) {
+        this(capacity, waitStrategy, null);
+    }
+
+    /**
+     * Create a channel able to hold at least capacity state changes, with all the slots allocated
+     * by the factory. If the factory is null the channel carries references to the published state changes.
+     *
+     * @param capacity The minimal number of state changes the channel holds, it is rounded up to a power of two.
+     * @param waitStrategy How producer and consumer wait for each other.
+     * @param factory Create the reusable state changes used as slots of the channel.
+     */
+    public StateChangeChannel(int capacity, WaitStrategy waitStrategy, Supplier<? extends ReusableStateChange<?>> factory) {
+        this(capacity, waitStrategy, BacklogStrategy.WAIT, factory);
+    }
+
+    /**
+     * Create a channel able to hold at least capacity state changes, with all the slots allocated
+     * by the factory. If the factory is null the channel carries references to the published state changes.
+     *
+     * @param capacity The minimal number of state changes the channel holds, it is rounded up to a power of two.
+     * @param waitStrategy How producer and consumer wait for each other.
+     * @param backlog What to do with the state changes waiting for the consumer.
+     * @param factory Create the reusable state changes used as slots of the channel.
+     */
+    public StateChangeChannel(int capacity, WaitStrategy waitStrategy, BacklogStrategy backlog, Supplier<? extends ReusableStateChange<?>> factory) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must have non null positive values up to 2^30.");
+        }
+
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null.");
+        }
+
+        if (backlog == null) {
+            throw new IllegalArgumentException("Backlog strategy cannot be null.");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.entries = new StateChange[size];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.backlog = backlog;
+
+        if (factory != null) {
+            for (int i = 0; i < size; i++) {
+                entries[i] = factory.get();
+            }
+
+            this.current = factory.get();
+        } else {
+            this.current = null;
+        }
+    }
+
+    /**
+     * Try to publish a state change without wait.
+     *
+     * @param state The state change to publish.
+     * @return false if the channel is full or closed.
+     */
+    public boolean offer(StateChange state) {
+        if (current != null) {
+            throw new IllegalStateException("A channel of reusable slots only publishes claimed slots.");
+        }
+
+        if (closed) {
+            return false;
+        }
+
+        if (!makeRoom()) {
+            return false;
+        }
+
+        long t = tail.get();
+        entries[(int) t & mask] = state;
+        tail.set(t + 1);
+
+        signal();
+
+        return true;
+    }
+
+    /**
+     * Publish a state change, waiting for room if the channel is full.
+     *
+     * @param state The state change to publish.
+     * @return false if the channel was closed, or the thread interrupted, before the state was published.
+     */
+    public boolean publish(StateChange state) {
+        while (!offer(state)) {
+            if (closed || !await(() -> closed || tail.get() - head.get() < entries.length)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Claim the next free slot to be filled by the producer, waiting for room if the channel is full.
+     * The slot is only visible for the consumer after {@link #publish()}.
+     *
+     * @return The slot to be filled or null if the channel was closed, or the thread interrupted.
+     */
+    public StateChange claim() {
+        if (current == null) {
+            throw new IllegalStateException("Only a channel of reusable slots has slots to claim.");
+        }
+
+        while (!makeRoom()) {
+            if (closed || !await(() -> closed || tail.get() - head.get() < entries.length)) {
+                return null;
+            }
+        }
+
+        return closed ? null : entries[(int) tail.get() & mask];
+    }
+
+    /**
+     * Publish the slot returned by the last call of {@link #claim()}.
+     */
+    public void publish() {
+        tail.set(tail.get() + 1);
+
+        signal();
+    }
+
+    /**
+     * Take the oldest state change without wait.
+     *
+     * @return The oldest state change or null if the channel is empty. For a channel of reusable
+     * slots it is always the same object, valid until the next call.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public StateChange poll() {
+        while (true) {
+            long h = head.get();
+            long t = tail.get();
+
+            if (h == t) {
+                return null;
+            }
+
+            long next = backlog == BacklogStrategy.LATEST ? t - 1 : h;
+            int index = (int) next & mask;
+            StateChange state;
+
+            if (current != null) {
+                ((ReusableStateChange) current).assign((ReusableStateChange) entries[index]);
+                state = current;
+            } else {
+                state = entries[index];
+            }
+
+            if (backlog == BacklogStrategy.WAIT) {
+                // Only the consumer moves the head, the slot can not be reused before it.
+                if (current == null) {
+                    entries[index] = null;
+                }
+
+                head.set(next + 1);
+            } else if (!head.compareAndSet(h, next + 1)) {
+                // The producer dropped the state change while it was read, take the next one.
+                continue;
+            }
+
+            signal();
+
+            return state;
+        }
+    }
+
+    /**
+     * Take the oldest state change, waiting for one if the channel is empty.
+     *
+     * @return The oldest state change or null when the channel is closed and there is no more
+     * state change, or the thread was interrupted.
+     */
+    public StateChange take() {
+        while (true) {
+            StateChange state = poll();
+
+            if (state != null) {
+                return state;
+            }
+
+            // Everything published before close is visible here.
+            if (closed) {
+                return poll();
+            }
+
+            if (!await(() -> closed || head.get() != tail.get())) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Close the channel for new state changes and wake up whoever is waiting on it.
+     */
+    public void close() {
+        closed = true;
+
+        if (waitStrategy == WaitStrategy.BLOCK) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public boolean isClosed() { return closed; }
+
+    public boolean isReusable() { return current != null; }
+
+    public boolean isEmpty() { return head.get() == tail.get(); }
+
+    public int size() { return (int) (tail.get() - head.get()); }
+
+    public int capacity() { return entries.length; }
+
+    public WaitStrategy waitStrategy() { return waitStrategy; }
+
+    public BacklogStrategy backlog() { return backlog; }
+
+    /**
+     * Check if there is room for one more state change. If the backlog strategy does not wait,
+     * the oldest state changes are dropped to make room.
+     *
+     * @return false if the channel is full and the producer must wait.
+     */
+    private boolean makeRoom() {
+        long t = tail.get();
+        long h;
+
+        while (t - (h = head.get()) >= entries.length) {
+            if (backlog == BacklogStrategy.WAIT) {
+                return false;
+            }
+
+            head.compareAndSet(h, h + 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Wait until the condition is true, following the wait strategy.
+     *
+     * @return false if the thread was interrupted while waiting.
+     */
+    private boolean await(BooleanSupplier ready) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                while (!ready.getAsBoolean()) {
+                    Thread.onSpinWait();
+                }
+                return true;
+            case YIELD:
+                while (!ready.getAsBoolean()) {
+                    Thread.yield();
+                }
+                return true;
+            case PARK:
+                while (!ready.getAsBoolean()) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+
+                    if (Thread.interrupted()) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                lock.lock();
+                waiters.incrementAndGet();
+                try {
+                    while (!ready.getAsBoolean()) {
+                        changed.await();
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } finally {
+                    waiters.decrementAndGet();
+                    lock.unlock();
+                }
+        }
+    }
+
+    /**
+     * Wake up the other side of the channel if it is blocked waiting.
+     */
+    private void signal() {
+        if (waitStrategy == WaitStrategy.BLOCK && waiters.get() > 0) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StateChangeContext is a registry with parameters for the delivery of state changes from an
+ * optimization process to its StateChangeHandler, they are:
+ * <pre>
+ * - capacity
+ * How many state changes can wait in the channel for the handler. When the channel is full, the optimization waits
+ * or the oldest state change is dropped, depending on the delivery policy.
+ * - waitStrategy
+ * How the listener waits for new state changes and the optimization waits for room in the channel.
+ * - reusableStates
+ * If true, the handler receives the reusable state changes themselves, that are only valid during the call
+ * of the handler. Otherwise, it receives an immutable copy, like AnnealingState or PSOState, created in the listener thread.
+ * - deliveryPolicy
+ * Which state changes reach the handler, see {@link DeliveryPolicy}.
+ * - executor
+ * Where the listener of each optimization runs. The listener occupies the executor during all the
+ * optimization, so the executor must be able to run one listener for each concurrent optimization.
+ * By default it is an executor shared by all optimizations, with a virtual thread for each listener
+ * in Java 21 or later, or a pool of daemon threads in the older versions.
+ * </pre>
+ */
+public class StateChangeContext {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    public final int capacity;
+    public final WaitStrategy waitStrategy;
+    public final boolean reusableStates;
+    public final DeliveryPolicy deliveryPolicy;
+    public final Executor executor;
+
+    public StateChangeContext() {
+        this(DEFAULT_CAPACITY, WaitStrategy.BLOCK, false, DeliveryPolicy.all());
+    }
+
+    public StateChangeContext(int capacity, WaitStrategy waitStrategy) {
+        this(capacity, waitStrategy, false, DeliveryPolicy.all());
+    }
+
+    public StateChangeContext(int capacity, WaitStrategy waitStrategy, boolean reusableStates) {
+        this(capacity, waitStrategy, reusableStates, DeliveryPolicy.all());
+    }
+
+    public StateChangeContext(DeliveryPolicy deliveryPolicy) {
+        this(DEFAULT_CAPACITY, WaitStrategy.BLOCK, false, deliveryPolicy);
+    }
+
+    public StateChangeContext(int capacity, WaitStrategy waitStrategy, boolean reusableStates, DeliveryPolicy deliveryPolicy) {
+        this(capacity, waitStrategy, reusableStates, deliveryPolicy, DEFAULT_EXECUTOR);
+    }
+
+    public StateChangeContext(int capacity, WaitStrategy waitStrategy, boolean reusableStates, DeliveryPolicy deliveryPolicy, Executor executor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must have non null positive values.");
+        }
+
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null.");
+        }
+
+        if (deliveryPolicy == null) {
+            throw new IllegalArgumentException("Delivery policy cannot be null.");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null.");
+        }
+
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+        this.reusableStates = reusableStates;
+        this.deliveryPolicy = deliveryPolicy;
+        this.executor = executor;
+    }
+
+    /**
+     * The executor shared by the listeners when no other is defined in the context.
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    private static Executor createDefaultExecutor() {
+        // Java 21 or later, without compile against it.
+        try {
+            Method virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (Executor) virtualThreads.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger(0);
+
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "state-change-listener-" + count.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+    }
+
+    public int capacity() { return capacity; }
+
+    public WaitStrategy waitStrategy() { return waitStrategy; }
+
+    public boolean reusableStates() { return reusableStates; }
+
+    public DeliveryPolicy deliveryPolicy() { return deliveryPolicy; }
+
+    public Executor executor() { return executor; }
+
+    @Override
+    public String toString() {
+        return "{StateChangeContext: {" +
+                    "'capacity': " + capacity +
+                    ", 'waitStrategy': '" + waitStrategy +
+                    "', 'reusableStates': '" + reusableStates +
+                    "', 'deliveryPolicy': " + deliveryPolicy +
+                "}";
+    }
+}
@@ -16,66 +16,167 @@
  */
 package drevo.stochastic.state;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
- * A listener that processes state changes in a separate thread.
- * It collects state changes and passes them to a handler for processing.
+ * <p>A listener that processes state changes in a separate thread.
+ * It receives state changes through a {@link StateChangeChannel} and passes them to a handler for processing.
+ *
+ * <p>A listener created with a factory of {@link ReusableStateChange} publishes without create objects,
+ * the optimization process {@link #claim()} a state, fills it and {@link #publish()} it.
+ *
+ * <p>The {@link DeliveryPolicy} of the context decides which state changes are published,
+ * the others are ignored before any work is done with them.
+ *
+ * <p>{@link #start()} runs the listener in the executor of the context and {@link #join()} waits
+ * for it to process all the state changes published before {@link #finish()}. A listener without
+ * handler does not run at all and ignores every state change.
  */
 public class StateChangeListener implements Runnable {
-    private List<StateChange> states = new ArrayList<>();
-    private final AtomicBoolean finish = new AtomicBoolean(false);
+    private final StateChangeChannel channel;
     private final StateChangeHandler handler;
-    
+    private final boolean reusableStates;
+    private final Executor executor;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    // Only accessed by the thread of the optimization process.
+    private final int sampling;
+    private final long minInterval;
+    private long offered = 0;
+    private long nextAdmission;
+
     public StateChangeListener(StateChangeHandler handler) {
+        this(handler, new StateChangeContext());
+    }
+
+    public StateChangeListener(StateChangeHandler handler, StateChangeContext context) {
+        this(handler, context, null);
+    }
+
+    /**
+     * Create a listener for the handler.
+     *
+     * @param handler The handler of the state changes, or null to ignore them.
+     * @param context How the state changes are delivered to the handler.
+     * @param factory Create the reusable state changes published by {@link #claim()}, or null to publish with {@link #onStateChange(StateChange)}.
+     */
+    public StateChangeListener(StateChangeHandler handler, StateChangeContext context, Supplier<? extends ReusableStateChange<?>> factory) {
         this.handler = handler;
+        this.channel = handler == null ? null
+            : new StateChangeChannel(context.capacity(), context.waitStrategy(), context.deliveryPolicy().backlog(), factory);
+        this.reusableStates = context.reusableStates();
+        this.executor = context.executor();
+
+        this.sampling = context.deliveryPolicy().sampling();
+        this.minInterval = context.deliveryPolicy().maxRate() > 0 ? 1_000_000_000L / context.deliveryPolicy().maxRate() : 0L;
+        this.nextAdmission = System.nanoTime();
+    }
+
+    /**
+     * Run the listener in the executor of its context. Without a handler nothing is done.
+     */
+    public void start() {
+        if (channel == null) {
+            done.countDown();
+        } else {
+            executor.execute(this);
+        }
     }
 
     @Override
     public void run() {
-        while (true) {
-            StateChange state = null;
-
-            synchronized (finish) {
-                synchronized (states) {
-                    if (states.isEmpty() && finish.get()) {
-                        return;
-                    }
-
-                    if (!states.isEmpty()) {
-                        state = states.remove(0);
-                    }
-                }
-            }
+        if (channel == null) {
+            done.countDown();
+            return;
+        }
+
+        try {
+            StateChange state;
 
-            if (state != null && handler != null) {
-                handler.handleStateChange(state);
+            while ((state = channel.take()) != null) {
+                handler.handleStateChange(channel.isReusable() && !reusableStates
+                    ? ((ReusableStateChange<?>) state).snapshot()
+                    : state);
             }
+        } finally {
+            // If the handler fails nobody will consume the channel anymore,
+            // so it must not keep the optimization waiting for room.
+            channel.close();
+            done.countDown();
         }
     }
-   
+
+    /**
+     * Wait until the listener has processed the state changes and stopped.
+     *
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    public void join() throws InterruptedException {
+        done.await();
+    }
+
     /**
      * Adds a state change to the listener for processing.
-     * 
+     * If the channel is full, it waits until the listener consumes older state changes.
+     *
      * @param state The state change to be processed.
      */
     public void onStateChange(StateChange state) {
-        synchronized (states) {        
-            if(!finish.get()) {
-                states.add(state);
-            }
+        if (channel != null && admit()) {
+            channel.publish(state);
         }
     }
-    
+
+    /**
+     * Claim a reusable state change to be filled and then published with {@link #publish()}.
+     * If the channel is full, it waits until the listener consumes older state changes.
+     *
+     * @return The state change to fill or null if the listener is finished, or the delivery policy leaves this state change out.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends ReusableStateChange<E>> E claim() {
+        return channel != null && admit() ? (E) channel.claim() : null;
+    }
+
+    /**
+     * Publish the state change returned by the last call of {@link #claim()}.
+     */
+    public void publish() {
+        channel.publish();
+    }
+
     /**
      * Signals that the listener should finish processing.
      * This will cause the run method to exit when there are no more states to process.
      */
     public void finish() {
-        synchronized (finish) {
-            finish.set(true);
+        if (channel != null) {
+            channel.close();
         }
     }
+
+    /**
+     * Apply the sampling and the rate of the delivery policy to the next state change.
+     *
+     * @return true if the state change must be published.
+     */
+    private boolean admit() {
+        if (sampling > 1 && (offered++ % sampling) != 0) {
+            return false;
+        }
+
+        if (minInterval > 0) {
+            long now = System.nanoTime();
+
+            if (now - nextAdmission < 0) {
+                return false;
+            }
+
+            nextAdmission = now + minInterval;
+        }
+
+        return true;
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+/**
+ * Define how a side of a {@link StateChangeChannel} waits when it can not go on, that is,
+ * the listener waiting for new state changes or the optimization waiting for free room
+ * in the channel.
+ * <pre>
+ * - BUSY_SPIN
+ * Keep the thread running and checking the channel. The lowest latency, but burn a whole core.
+ * - YIELD
+ * Check the channel and give the processor to other threads between the checks.
+ * - PARK
+ * Park the thread for a short period between the checks. Low CPU usage with a small latency.
+ * - BLOCK
+ * Block the thread until the other side signals a change in the channel. No CPU usage while waiting.
+ * </pre>
+ */
+public enum WaitStrategy {
+    BUSY_SPIN, YIELD, PARK, BLOCK
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+class KernelsTest {
+    private final Random rand = new Random(7);
+
+    private double[] values(int length) {
+        double[] x = new double[length];
+
+        for (int i = 0; i < length; i++) {
+            x[i] = rand.nextDouble() * 10 - 5;
+        }
+
+        return x;
+    }
+
+    private static boolean isVectorKernelsBuilt() {
+        return Kernels.class.getClassLoader().getResource(VectorSupport.VECTOR_KERNELS.replace('.', '/') + ".class") != null;
+    }
+
+    @Test
+    void testVectorKernelsAreUsedWhenTheModuleIsPresent() {
+        // With -Pvector the kernels are built and the tests run with --add-modules jdk.incubator.vector.
+        boolean expected = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && isVectorKernelsBuilt();
+
+        assertEquals(expected, Kernels.isVectorized());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 3, 8, 17, 200 })
+    void testVectorSumsMatchScalar(int length) {
+        Kernels scalar = Kernels.scalar();
+        Kernels vector = Kernels.get();
+        double[] x = values(length + 5);
+
+        assertEquals(scalar.sumOfSquares(x, 5, length), vector.sumOfSquares(x, 5, length), 1e-9);
+        assertEquals(scalar.sumOfCosines(x, 5, length), vector.sumOfCosines(x, 5, length), 1e-9);
+        assertEquals(scalar.rastrigin(x, 5, length), vector.rastrigin(x, 5, length), 1e-9);
+        assertEquals(scalar.rosenbrock(x, 5, length), vector.rosenbrock(x, 5, length), 1e-6);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 3, 8, 17, 200 })
+    void testVectorMoveMatchesScalar(int length) {
+        double[] x = values(2 * length);
+        double[] v = values(2 * length);
+        double[] best = values(2 * length);
+        double[] guide = values(length);
+        double[] r1 = values(length);
+        double[] r2 = values(length);
+
+        double[] scalarX = x.clone();
+        double[] scalarV = v.clone();
+
+        Kernels.scalar().move(scalarX, scalarV, best, length, guide, 0, r1, r2, length, 0.7, 1.5, 1.5);
+        Kernels.get().move(x, v, best, length, guide, 0, r1, r2, length, 0.7, 1.5, 1.5);
+
+        assertArrayEquals(scalarV, v, 1e-9);
+        assertArrayEquals(scalarX, x, 1e-9);
+
+        // The first particle is not touched.
+        assertArrayEquals(Arrays.copyOf(scalarX, length), Arrays.copyOf(x, length));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BenchmarkFunction.class)
+    void testBenchmarkMinimum(BenchmarkFunction function) {
+        double[] optimum = new double[30];
+
+        if (function == BenchmarkFunction.ROSENBROCK) {
+            Arrays.fill(optimum, 1.0);
+        }
+
+        assertEquals(0.0, function.evaluate(optimum), 1e-9);
+        assertTrue(function.evaluate(values(30)) > 0.0);
+    }
+
+    @Test
+    void testBenchmarkValues() {
+        assertEquals(14.0, BenchmarkFunction.SPHERE.evaluate(new double[] {1, 2, 3}), 1e-12);
+        assertEquals(3.0, BenchmarkFunction.RASTRIGIN.evaluate(new double[] {1, 1, 1}), 1e-9);
+        assertEquals(401.0, BenchmarkFunction.ROSENBROCK.evaluate(new double[] {0, 2}), 1e-9);
+        assertEquals(BenchmarkFunction.SPHERE.evaluate(new double[] {2, 3}), BenchmarkFunction.SPHERE.evaluate(new double[] {9, 2, 3, 9}, 1, 2), 1e-12);
+        assertEquals(-5.12, BenchmarkFunction.RASTRIGIN.bounds().low());
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.annealing.AnnealingContext;
+import drevo.stochastic.annealing.AnnealingFunction;
+import drevo.stochastic.annealing.function.QuadraticFunction;
+import drevo.stochastic.pso.DoubleParticle;
+import drevo.stochastic.pso.PSOContext;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.WaitStrategy;
+
+class OptimizerPoolTest {
+    private final Random rand = new Random();
+
+    private final Function<DoubleParticle, Double> sphere = particle -> {
+        double[] pos = particle.getPosition();
+        return pos[0] * pos[0] + pos[1] * pos[1];
+    };
+
+    private List<DoubleParticle> swarm(int size) {
+        List<DoubleParticle> swarm = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            double[] position = {rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5};
+            double[] velocity = {rand.nextDouble() * 0.1 - 0.05, rand.nextDouble() * 0.1 - 0.05};
+            swarm.add(new DoubleParticle(position, velocity));
+        }
+
+        return swarm;
+    }
+
+    /**
+     * Submit a job that holds its worker until the latch is released.
+     */
+    private Optimization<DoubleParticle> block(OptimizerPool pool, CountDownLatch started, CountDownLatch release) throws InterruptedException {
+        Optimization<DoubleParticle> blocker = pool.submit(new PSOContext(1, 0.729, 1.49445, 1.49445), particle -> {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return 0.0;
+        }, swarm(1));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "The blocker must start");
+
+        return blocker;
+    }
+
+    @Test
+    void annealingAndPSOJobsTest() {
+        OptimizerPool pool = new OptimizerPool(2, 10);
+
+        Optimization<AnnealingFunction> annealing = pool.submit(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE),
+            new QuadraticFunction());
+        Optimization<DoubleParticle> pso = pool.submit(new PSOContext(200, 0.729, 1.49445, 1.49445), sphere, swarm(30));
+
+        QuadraticFunction result = (QuadraticFunction) annealing.join();
+        DoubleParticle best = pso.join();
+
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+        assertTrue(sphere.apply(best) < 0.1, "PSO fitness: " + sphere.apply(best));
+
+        OptimizerPool.Metrics metrics = pool.metrics();
+
+        assertEquals(2, metrics.completed(), metrics.toString());
+        assertEquals(0, metrics.queued());
+        assertEquals(0, metrics.running());
+        assertTrue(metrics.meanRun() > 0.0);
+
+        pool.shutdown();
+    }
+
+    @Test
+    void queueLimitTest() throws InterruptedException {
+        OptimizerPool pool = new OptimizerPool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        block(pool, new CountDownLatch(1), release);
+
+        Optimization<DoubleParticle> waiting = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), sphere, swarm(10));
+
+        assertEquals(1, pool.queueDepth());
+        assertThrows(RejectedExecutionException.class, () -> pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), sphere, swarm(10)));
+        assertEquals(1, pool.metrics().rejected());
+
+        release.countDown();
+        waiting.join();
+
+        assertEquals(0, pool.queueDepth());
+        assertTrue(pool.metrics().maxWait() > 0.0);
+
+        pool.shutdown();
+    }
+
+    @Test
+    void priorityTest() throws InterruptedException {
+        OptimizerPool pool = new OptimizerPool(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        block(pool, new CountDownLatch(1), release);
+
+        Optimization<DoubleParticle> low = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), particle -> {
+            order.add("low");
+            return sphere.apply(particle);
+        }, swarm(1), null, 0, 1000);
+        Optimization<DoubleParticle> high = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), particle -> {
+            order.add("high");
+            return sphere.apply(particle);
+        }, swarm(1), null, 5, 1000);
+
+        release.countDown();
+        low.join();
+        high.join();
+
+        assertEquals("high", order.get(0));
+        assertEquals("low", order.get(order.size() - 1));
+
+        pool.shutdown();
+    }
+
+    @Test
+    void cancelWaitingJobTest() throws InterruptedException {
+        OptimizerPool pool = new OptimizerPool(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch evaluated = new CountDownLatch(1);
+
+        Optimization<DoubleParticle> blocker = block(pool, new CountDownLatch(1), release);
+        Optimization<DoubleParticle> waiting = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), particle -> {
+            evaluated.countDown();
+            return sphere.apply(particle);
+        }, swarm(10));
+
+        assertTrue(waiting.cancel());
+        assertEquals(0, pool.queueDepth(), "A cancelled job leaves the queue");
+
+        release.countDown();
+        blocker.join();
+
+        assertThrows(CancellationException.class, waiting::join);
+        assertFalse(evaluated.await(200, TimeUnit.MILLISECONDS), "A cancelled job never runs");
+
+        pool.shutdown();
+    }
+
+    @Test
+    void budgetTest() throws InterruptedException {
+        OptimizerPool pool = new OptimizerPool(1, 10);
+
+        long start = System.currentTimeMillis();
+
+        // A minute of deadline and a very slow cooling, stopped by the budget of the job.
+        Optimization<AnnealingFunction> optimization = pool.submit(
+            new AnnealingContext(10000, 0.000001, 0.0001, 500, 60000, -1, -1, ProblemType.MINIMIZE),
+            new QuadraticFunction(), null, 0, 200);
+
+        optimization.join();
+
+        assertTrue(System.currentTimeMillis() - start < 5000, "The job must stop at the end of its budget");
+        assertEquals(1.0, optimization.progress());
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5000));
+        assertThrows(RejectedExecutionException.class, () -> pool.submit(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE), new QuadraticFunction()));
+    }
+
+    @Test
+    void failingJobTest() throws Exception {
+        ExecutorService listeners = Executors.newSingleThreadExecutor();
+        OptimizerPool pool = new OptimizerPool(1, 10,
+            new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), listeners));
+
+        Function<DoubleParticle, Double> failing = particle -> {
+            throw new IllegalStateException("Simulation failed");
+        };
+        Function<DoubleParticle, Double> asserting = particle -> {
+            throw new AssertionError("Invalid particle");
+        };
+
+        try {
+            // Both fail in the initialization of the swarm, in the worker.
+            Optimization<DoubleParticle> first = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), failing, swarm(10), state -> {}, 0, 1000);
+            Optimization<DoubleParticle> second = pool.submit(new PSOContext(10, 0.729, 1.49445, 1.49445), asserting, swarm(10), state -> {}, 0, 1000);
+
+            CompletionException exception = assertThrows(CompletionException.class, first::join);
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+
+            exception = assertThrows(CompletionException.class, second::join);
+            assertTrue(exception.getCause() instanceof AssertionError);
+
+            OptimizerPool.Metrics metrics = pool.metrics();
+
+            assertEquals(2, metrics.completed(), metrics.toString());
+            assertEquals(0, metrics.running());
+
+            // The only thread of the listeners is free, no listener of a failed job waits for states.
+            assertTrue(listeners.submit(() -> true).get(10, TimeUnit.SECONDS));
+
+            // The worker is still there for the next job.
+            assertTrue(sphere.apply(pool.submit(new PSOContext(50, 0.729, 1.49445, 1.49445), sphere, swarm(10)).join()) < 10.0);
+        } finally {
+            pool.shutdown();
+            listeners.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentAdmissionTest() throws InterruptedException {
+        OptimizerPool pool = new OptimizerPool(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> submitters = new ArrayList<>();
+
+        block(pool, new CountDownLatch(1), release);
+
+        for (int i = 0; i < 16; i++) {
+            Thread submitter = new Thread(() -> {
+                try {
+                    go.await();
+                    pool.submit(new PSOContext(1, 0.729, 1.49445, 1.49445), sphere, swarm(1));
+                    accepted.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // The queue is full.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+
+        go.countDown();
+
+        for (Thread submitter : submitters) {
+            submitter.join(5000);
+        }
+
+        assertEquals(2, accepted.get(), "Only the queue limit is admitted while the worker is busy");
+        assertEquals(14, pool.metrics().rejected());
+
+        release.countDown();
+        pool.shutdown();
+    }
+}
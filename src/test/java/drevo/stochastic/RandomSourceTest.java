@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class RandomSourceTest {
+    @Test
+    void sameSeedSameStreamsTest() {
+        RandomSource first = new RandomSource(42);
+        RandomSource second = new RandomSource(42);
+
+        for (int i = 0; i < 10; i++) {
+            SplittableRandom a = first.split();
+            SplittableRandom b = second.split();
+
+            for (int j = 0; j < 100; j++) {
+                assertEquals(a.nextLong(), b.nextLong());
+            }
+        }
+
+        assertEquals(42, first.seed());
+        assertEquals("{RandomSource: {'seed': 42}}", first.toString());
+    }
+
+    @Test
+    void streamsAreIndependentTest() {
+        RandomSource source = new RandomSource(42);
+
+        assertNotEquals(source.split().nextLong(), source.split().nextLong());
+        assertNotEquals(new RandomSource().seed(), new RandomSource().seed());
+    }
+
+    @Test
+    void randomAdapterTest() {
+        Random random = new RandomSource(7).random();
+        SplittableRandom expected = new RandomSource(7).split();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.nextDouble(), random.nextDouble());
+            assertEquals(expected.nextInt(10), random.nextInt(10));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            double value = random.doubles(1, -1.0, 1.0).findFirst().getAsDouble();
+            assertTrue(-1.0 <= value && value < 1.0);
+        }
+
+        assertThrows(UnsupportedOperationException.class, () -> random.setSeed(1));
+        assertThrows(IllegalArgumentException.class, () -> RandomSource.asRandom(null));
+    }
+}
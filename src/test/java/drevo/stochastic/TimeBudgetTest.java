@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TimeBudgetTest {
+    @Test
+    void testBudgetExpires() throws InterruptedException {
+        TimeBudget budget = new TimeBudget(50);
+
+        assertFalse(budget.isExpired());
+        assertTrue(budget.remaining() > 0);
+
+        Thread.sleep(60);
+
+        assertTrue(budget.isExpired());
+        assertEquals(0, budget.remaining());
+        assertThrows(IllegalArgumentException.class, () -> new TimeBudget(0));
+    }
+
+    @Test
+    void testCheckerStrideFollowsStepCost() {
+        TimeBudget budget = new TimeBudget(200);
+        TimeBudget.Checker checker = budget.checker();
+        long steps = 0;
+
+        while (!checker.isExpired()) {
+            steps++;
+        }
+
+        // Cheap steps are checked in large strides, but the budget still ends on time.
+        assertTrue(checker.stride() > 1 || steps < 1000, "Stride " + checker.stride() + " for " + steps + " steps");
+        assertEquals(200_000_000L, budget.elapsed(), 50_000_000L);
+    }
+
+    @Test
+    void testExpireStopsAllCheckers() {
+        TimeBudget budget = new TimeBudget(60_000);
+        TimeBudget.Checker first = budget.checker();
+        TimeBudget.Checker second = budget.checker();
+
+        for (int i = 0; i < 1000; i++) {
+            first.isExpired();
+            second.isExpired();
+        }
+
+        budget.expire();
+
+        assertTrue(first.isExpired());
+        assertTrue(second.isExpired());
+        assertTrue(budget.isExpired());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.Optimization;
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.annealing.function.QuadraticFunction;
+import drevo.stochastic.state.StateChangeContext;
+
+class AsyncAnnealingTest extends BaseFunctionTest {
+    @Test
+    void minimizeQuadraticFunctionTest() {
+        Optimization<AnnealingFunction> optimization = SimulatedAnnealing.optimizeAsync(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE),
+            new QuadraticFunction());
+
+        QuadraticFunction result = (QuadraticFunction) optimization.future().join();
+
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+        assertEquals(1.0, optimization.progress());
+        assertTrue(optimization.best().compute() <= result.compute() + 10e-9);
+    }
+
+    @Test
+    void cancelTest() throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        // A minute of deadline and a very slow cooling.
+        Optimization<AnnealingFunction> optimization = SimulatedAnnealing.optimizeAsync(
+            new AnnealingContext(10000, 0.000001, 0.0001, 500, 60000, -1, -1, ProblemType.MINIMIZE),
+            new ContinuousFunctionTest.Sphere(10),
+            null,
+            new StateChangeContext(),
+            task -> new Thread(() -> {
+                task.run();
+                stopped.countDown();
+            }).start());
+
+        Thread.sleep(200);
+
+        double progress = optimization.progress();
+
+        assertTrue(0.0 < progress && progress < 1.0, "Progress: " + progress);
+        assertNotNull(optimization.best());
+
+        long start = System.currentTimeMillis();
+
+        assertTrue(optimization.future().cancel(false));
+        assertTrue(stopped.await(5, TimeUnit.SECONDS), "The process must stop after cancelled");
+        assertEquals(0, System.currentTimeMillis() - start, 100L);
+
+        assertTrue(optimization.isCancelled());
+        assertThrows(CancellationException.class, optimization::join);
+        assertNotNull(optimization.best(), "The best solution can be read after cancelled");
+    }
+}
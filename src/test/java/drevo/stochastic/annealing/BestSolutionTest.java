@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import drevo.stochastic.ProblemType;
+
+class BestSolutionTest {
+    /**
+     * Keep the lowest and the highest values computed by a function and all its copies.
+     */
+    static class Recorder {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void record(double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    /**
+     * A multimodal function of one variable that records every value it computes.
+     */
+    static class Recorded implements AnnealingFunction {
+        private final Recorder recorder;
+        private double x;
+
+        Recorded(Recorder recorder, double x) {
+            this.recorder = recorder;
+            this.x = x;
+        }
+
+        @Override
+        public double compute() {
+            double value = Math.sin(3 * x) + 0.1 * x;
+
+            recorder.record(value);
+
+            return value;
+        }
+
+        @Override
+        public void reconfigure() {
+            reconfigure(RandomGenerator.getDefault());
+        }
+
+        @Override
+        public void reconfigure(RandomGenerator random) {
+            x = Math.max(-10, Math.min(10, x + random.nextGaussian()));
+        }
+
+        @Override
+        public void assign(AnnealingFunction f) {
+            x = ((Recorded) f).x;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public AnnealingFunction copy() {
+            return new Recorded(recorder, x);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ProblemType.class)
+    void bestVisitedSolutionTest(ProblemType problemType) {
+        AnnealingContext ctx = new AnnealingContext(10, 0.1, 0.1, 100, 60000, -1, -1,
+            problemType, CoolingSchedule.geometric(), 7);
+        Recorder recorder = new Recorder();
+
+        AnnealingFunction best = SimulatedAnnealing.optimize(ctx, new Recorded(recorder, 0));
+
+        // A rejected configuration is worse than the current one, and the current one is never better than the
+        // best one, so the best visited solution has the extreme of all computed values.
+        assertEquals(problemType == ProblemType.MINIMIZE ? recorder.min : recorder.max, best.compute());
+    }
+}
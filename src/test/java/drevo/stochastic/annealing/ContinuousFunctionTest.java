@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.math.Interval;
+import drevo.stochastic.ProblemType;
+
+class ContinuousFunctionTest extends BaseFunctionTest {
+    static class Sphere extends ContinuousAnnealingFunction {
+        Sphere(int dimention) {
+            super(dimention, new Interval(-10, 10));
+        }
+
+        Sphere(Sphere other) {
+            super(other);
+        }
+
+        @Override
+        public double compute(double[] x) {
+            double sum = 0.0;
+
+            for (double value : x) {
+                sum += value * value;
+            }
+
+            return sum;
+        }
+
+        @Override
+        public AnnealingFunction copy() {
+            return new Sphere(this);
+        }
+    }
+
+    static class SeparableSphere extends Sphere {
+        SeparableSphere(int dimention) {
+            super(dimention);
+        }
+
+        SeparableSphere(SeparableSphere other) {
+            super(other);
+        }
+
+        @Override
+        protected double delta(int i, double old, double value) {
+            return value * value - old * old;
+        }
+
+        @Override
+        public AnnealingFunction copy() {
+            return new SeparableSphere(this);
+        }
+    }
+
+    @Test
+    void boundsAndCopyTest() {
+        Sphere function = new Sphere(5);
+
+        function.x(0, 20);
+        function.x(1, -20);
+
+        assertEquals(10, function.x(0));
+        assertEquals(-10, function.x(1));
+        assertTrue(function.isValid());
+
+        Sphere copy = (Sphere) function.copy();
+
+        assertNotSame(function.values(), copy.values());
+        assertArrayEquals(function.values(), copy.values());
+
+        copy.reconfigure();
+        function.assign(copy);
+
+        assertArrayEquals(copy.values(), function.values());
+
+        assertThrows(IllegalArgumentException.class, () -> new Sphere(0));
+    }
+
+    @Test
+    void moveAndUndoTest() {
+        SeparableSphere function = new SeparableSphere(3);
+        double[] before = function.values();
+        double start = function.compute();
+
+        AnnealingMove move = function.move();
+        move.apply();
+
+        assertEquals(start + move.delta(), function.compute(), 10e-9);
+
+        move.undo();
+
+        assertArrayEquals(before, function.values());
+    }
+
+    @Test
+    void undoneMoveIsReusedTest() {
+        SeparableSphere function = new SeparableSphere(3);
+
+        AnnealingMove rejected = function.move();
+        rejected.apply();
+        rejected.undo();
+
+        AnnealingMove accepted = function.move();
+        assertSame(rejected, accepted);
+
+        accepted.apply();
+
+        // The applied moves are kept by the process, so the moves of a full journal are all different.
+        Set<AnnealingMove> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.add(accepted);
+
+        for (int i = 0; i < SimulatedAnnealing.JOURNAL_LIMIT; i++) {
+            AnnealingMove move = function.move();
+            move.apply();
+
+            assertTrue(kept.add(move));
+        }
+    }
+
+    @Test
+    void minimizeSphereFunctionTest() {
+        Sphere function = new Sphere(10);
+
+        Sphere result = (Sphere) SimulatedAnnealing.optimize(
+            new AnnealingContext(10000, 0.1, 0.01, 5000, 2000, -1, -1, ProblemType.MINIMIZE),
+            function);
+
+        assertTrue(result.isValid());
+        assertTrue(result.compute() < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+    }
+
+    @Test
+    void minimizeHighDimensionalSphereFunctionTest() {
+        SeparableSphere function = new SeparableSphere(1000);
+
+        SeparableSphere result = (SeparableSphere) SimulatedAnnealing.optimize(
+            new AnnealingContext(10000, 0.1, 0.01, 5000, 2000, -1, -1, ProblemType.MINIMIZE),
+            function);
+
+        assertTrue(result.isValid());
+        // In the final temperature each component still oscillates with energy about kT/2.
+        assertTrue(result.compute() < 10e-2, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+    }
+}
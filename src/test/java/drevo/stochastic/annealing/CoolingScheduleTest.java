@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.annealing.function.QuadraticFunction;
+
+class CoolingScheduleTest extends BaseFunctionTest {
+    private final AnnealingContext ctx = new AnnealingContext(1000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE);
+
+    static Stream<CoolingSchedule> schedules() {
+        return Stream.of(
+            CoolingSchedule.geometric(),
+            CoolingSchedule.linear(),
+            CoolingSchedule.logarithmic(),
+            CoolingSchedule.lundyMees(0.001),
+            CoolingSchedule.adaptive(0.4),
+            CoolingSchedule.reheating(CoolingSchedule.geometric(), 50, 2),
+            CoolingSchedule.adaptiveSteps(CoolingSchedule.geometric(), 100));
+    }
+
+    @Test
+    void testNextTemperature() {
+        assertEquals(990, CoolingSchedule.geometric().next(ctx, 1000, 1, 0.5, 0), 10e-9);
+        assertEquals(990.001, CoolingSchedule.linear().next(ctx, 1000, 1, 0.5, 0), 10e-9);
+        assertEquals(1000 / (1 + Math.log(3)), CoolingSchedule.logarithmic().next(ctx, 1000, 2, 0.5, 0), 10e-9);
+        assertEquals(500, CoolingSchedule.lundyMees(0.001).next(ctx, 1000, 1, 0.5, 0), 10e-9);
+    }
+
+    @Test
+    void testAdaptiveFollowsAcceptance() {
+        CoolingSchedule schedule = CoolingSchedule.adaptive(0.5);
+
+        assertEquals(990, schedule.next(ctx, 1000, 1, 0.5, 0), 10e-9);
+        assertEquals(980, schedule.next(ctx, 1000, 1, 1.0, 0), 10e-9, "Cools faster when too much is accepted");
+        assertEquals(999, schedule.next(ctx, 1000, 1, 0.0, 0), 10e-9, "Cools slower when almost nothing is accepted");
+    }
+
+    @Test
+    void testReheating() {
+        CoolingSchedule schedule = CoolingSchedule.reheating(CoolingSchedule.geometric(), 10, 4);
+
+        assertEquals(99, schedule.next(ctx, 100, 1, 0.5, 9), 10e-9);
+        assertEquals(400, schedule.next(ctx, 100, 1, 0.5, 10), 10e-9);
+        assertEquals(1000, schedule.next(ctx, 500, 1, 0.5, 10), 10e-9, "Never above the initial temperature");
+        assertEquals(990, schedule.next(ctx, 1000, 1, 0.5, 10), 10e-9, "Cools when the temperature cannot be raised");
+    }
+
+    @Test
+    void testReheatingWithPatienceOfOneTemperature() {
+        CoolingSchedule reheating = CoolingSchedule.reheating(CoolingSchedule.geometric(), 1, 2);
+        List<Double> temperatures = new ArrayList<>();
+
+        CoolingSchedule recorded = (context, temperature, level, acceptance, stagnation) -> {
+            temperatures.add(temperature);
+
+            return reheating.next(context, temperature, level, acceptance, stagnation);
+        };
+
+        AnnealingFunction constant = new AnnealingFunction() {
+            @Override
+            public double compute() { return 1.0; }
+
+            @Override
+            public void reconfigure() { }
+
+            @Override
+            public void assign(AnnealingFunction f) { }
+
+            @Override
+            public boolean isValid() { return true; }
+
+            @Override
+            public AnnealingFunction copy() { return this; }
+        };
+
+        // The best solution never improves, so each temperature is a stagnation that reaches the patience.
+        SimulatedAnnealing.optimize(new AnnealingContext(1000, 0.1, 0.5, 1000, 200, -1, -1, ProblemType.MINIMIZE, recorded), constant);
+
+        assertTrue(temperatures.size() > 2);
+        assertTrue(temperatures.stream().anyMatch(t -> t < 1000), "Temperatures: " + temperatures.subList(0, 3));
+    }
+
+    @Test
+    void testInvalidSchedules() {
+        assertThrows(IllegalArgumentException.class, () -> CoolingSchedule.lundyMees(0));
+        assertThrows(IllegalArgumentException.class, () -> CoolingSchedule.adaptive(1));
+        assertThrows(IllegalArgumentException.class, () -> CoolingSchedule.reheating(null, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> CoolingSchedule.reheating(CoolingSchedule.geometric(), 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> CoolingSchedule.adaptiveSteps(CoolingSchedule.geometric(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new AnnealingContext(1000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE, null));
+    }
+
+    @Test
+    void testAdaptiveStepsLeavesTemperatureEarly() {
+        AtomicInteger computeCount = new AtomicInteger(0);
+        AnnealingContext adaptiveCtx = new AnnealingContext(1000, 0.1, 0.01, 2000, 10000, -1, -1, ProblemType.MINIMIZE,
+            CoolingSchedule.adaptiveSteps(CoolingSchedule.geometric(), 1));
+
+        // Every configuration of a constant function is accepted, so each temperature has only one step.
+        SimulatedAnnealing.optimize(adaptiveCtx, new ContinuousFunctionTest.Sphere(2) {
+            @Override
+            public double compute(double[] x) {
+                computeCount.incrementAndGet();
+                return 1.0;
+            }
+
+            @Override
+            public AnnealingFunction copy() {
+                return this;
+            }
+        });
+
+        // One compute() in the start of each temperature and one for its only step.
+        int temperatures = (int) Math.ceil(Math.log(adaptiveCtx.finalTemperature() / adaptiveCtx.initialTemperature()) / Math.log(1 - adaptiveCtx.coolingRate()));
+
+        assertTrue(computeCount.get() <= 2 * temperatures + 2, "compute() called " + computeCount.get() + " times");
+    }
+
+    @ParameterizedTest
+    @MethodSource("schedules")
+    void minimizeQuadraticFunctionTest(CoolingSchedule schedule) {
+        QuadraticFunction result = (QuadraticFunction) SimulatedAnnealing.optimize(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MINIMIZE, schedule),
+            new QuadraticFunction());
+
+        assertTrue(result.isValid());
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize with %s. result.compute(): %.5f.", schedule, result.compute()));
+    }
+}
@@ -24,7 +24,9 @@ import org.junit.platform.commons.logging.Logger;
 import org.junit.platform.commons.logging.LoggerFactory;
 
 import drevo.stochastic.ProblemType;
+import drevo.stochastic.TimeBudget;
 import drevo.stochastic.annealing.function.InverseSciExponentFunction;
+import drevo.stochastic.state.StateChangeContext;
 
 class EarlyStopTest {
     Logger logger = LoggerFactory.getLogger(getClass());
@@ -128,4 +130,30 @@ class EarlyStopTest {
         
         assertEquals(deadline, timePass, 100L);
     }
+
+    @Test
+    void sharedTimeBudgetTest() throws InterruptedException {
+        AnnealingContext ctx = new AnnealingContext(10000, 0.000001, 0.0001, 500, 60000, -1, -1, ProblemType.MINIMIZE);
+        TimeBudget budget = new TimeBudget(60000);
+        Thread[] runs = new Thread[2];
+
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = new Thread(() -> SimulatedAnnealing.optimize(ctx, new ContinuousFunctionTest.Sphere(10), null, new StateChangeContext(), budget));
+            runs[i].start();
+        }
+
+        Thread.sleep(200);
+
+        long start = System.currentTimeMillis();
+
+        // The deadline of the context is one minute, but both processes stop when the shared budget is over.
+        budget.expire();
+
+        for (Thread run : runs) {
+            run.join(10_000);
+            assertTrue(!run.isAlive(), "The process must stop when the budget expires");
+        }
+
+        assertEquals(0, System.currentTimeMillis() - start, 100L);
+    }
 }
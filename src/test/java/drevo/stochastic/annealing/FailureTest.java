@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.WaitStrategy;
+
+class FailureTest {
+    private final AnnealingContext ctx = new AnnealingContext(10000, 0.1, 0.01, 100, 60000, -1, -1, ProblemType.MINIMIZE);
+
+    /**
+     * A function that fails after it was computed some times, counting the calls of all its copies.
+     */
+    static class Failing implements AnnealingFunction {
+        private final AtomicInteger calls;
+        private final int limit;
+
+        Failing(AtomicInteger calls, int limit) {
+            this.calls = calls;
+            this.limit = limit;
+        }
+
+        @Override
+        public double compute() {
+            if (calls.incrementAndGet() > limit) {
+                throw new IllegalStateException("Simulation failed");
+            }
+
+            return 1.0;
+        }
+
+        @Override
+        public void reconfigure() { }
+
+        @Override
+        public void assign(AnnealingFunction f) { }
+
+        @Override
+        public boolean isValid() { return true; }
+
+        @Override
+        public AnnealingFunction copy() { return new Failing(calls, limit); }
+    }
+
+    /**
+     * Run the process with a function that fails in its first computation and with one that fails while it
+     * cools, and check that the only thread of the listeners is free again after each failure.
+     */
+    private void assertListenerIsFinished(ProcessFactory process) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+
+        try {
+            assertThrows(IllegalStateException.class, process.run(new Failing(new AtomicInteger(), 0), stateContext));
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, process.run(new Failing(new AtomicInteger(), 50), stateContext));
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface ProcessFactory {
+        Executable run(AnnealingFunction function, StateChangeContext stateContext);
+    }
+
+    @Test
+    void simulatedAnnealingTest() throws Exception {
+        assertListenerIsFinished((function, stateContext) -> () -> SimulatedAnnealing.optimize(ctx, function, state -> {}, stateContext));
+    }
+
+    @Test
+    void parallelTemperingTest() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            assertListenerIsFinished((function, stateContext) -> () -> ParallelTempering.optimize(ctx, function, state -> {}, stateContext, 4, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.annealing.function.IncrementalKnapsackFunction;
+
+class IncrementalFunctionTest extends BaseFunctionTest {
+    private final double[] v = { 20.0, 15.0, 10.0, 8.0, 7.0, 30.0, 12.0, 4.0 };
+    private final double[] w = { 5.0, 8.0, 3.0, 2.0, 4.0, 9.0, 6.0, 1.0 };
+    private final double restrition = 20.0;
+
+    private double maximumValue() {
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int mask = 0; mask < (1 << v.length); mask++) {
+            double sumV = 0.0;
+            double sumW = 0.0;
+
+            for (int i = 0; i < v.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    sumV += v[i];
+                    sumW += w[i];
+                }
+            }
+
+            if (sumW < restrition && sumV > max) {
+                max = sumV;
+            }
+        }
+
+        return max;
+    }
+
+    @Test
+    void maximumOptimumTest() {
+        AtomicInteger computeCount = new AtomicInteger(0);
+        IncrementalKnapsackFunction function = new IncrementalKnapsackFunction(v, w, restrition, computeCount);
+
+        // The values of the items are high for the Boltzmann constant, the process needs a higher initial temperature to move.
+        IncrementalKnapsackFunction result = (IncrementalKnapsackFunction) SimulatedAnnealing.optimize(
+            new AnnealingContext(1000000, 0.1, 0.01, 2000, 1000, -1, -1, ProblemType.MAXIMIZE),
+            function);
+
+        assertTrue(result.isValid());
+        assertEquals(maximumValue(), result.compute(), 10e-9);
+    }
+
+    @Test
+    void computeOncePerTemperatureTest() {
+        AtomicInteger computeCount = new AtomicInteger(0);
+        AnnealingContext ctx = new AnnealingContext(10000, 0.1, 0.01, 2000, 10000, -1, -1, ProblemType.MAXIMIZE);
+
+        SimulatedAnnealing.optimize(ctx, new IncrementalKnapsackFunction(v, w, restrition, computeCount));
+
+        // ln(0.1 / 10000) / ln(0.99) temperatures, plus the start, instead of one compute for each of the 2000 steps.
+        int temperatures = (int) Math.ceil(Math.log(ctx.finalTemperature() / ctx.initialTemperature()) / Math.log(1 - ctx.coolingRate()));
+
+        assertTrue(computeCount.get() <= temperatures + 2, "compute() called " + computeCount.get() + " times");
+    }
+}
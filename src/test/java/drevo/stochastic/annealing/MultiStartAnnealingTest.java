@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.annealing.function.QuadraticFunction;
+import drevo.stochastic.state.StateChangeContext;
+
+class MultiStartAnnealingTest extends BaseFunctionTest {
+    @Test
+    void minimizeQuadraticFunctionTest() {
+        QuadraticFunction function = new QuadraticFunction();
+
+        QuadraticFunction result = (QuadraticFunction) MultiStartAnnealing.optimize(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, 300, ProblemType.MINIMIZE),
+            function,
+            4);
+
+        assertTrue(result.isValid());
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+    }
+
+    @Test
+    void sharedDeadlineTest() {
+        long deadline = 500;
+        AtomicInteger copies = new AtomicInteger(0);
+
+        AnnealingFunction function = new AnnealingFunction() {
+            @Override
+            public double compute() { return 1.0; }
+
+            @Override
+            public void reconfigure() { }
+
+            @Override
+            public void assign(AnnealingFunction f) { }
+
+            @Override
+            public boolean isValid() { return true; }
+
+            @Override
+            public AnnealingFunction copy() {
+                copies.incrementAndGet();
+                return this;
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        long start = System.currentTimeMillis();
+
+        try {
+            MultiStartAnnealing.optimize(
+                new AnnealingContext(10000, 0.000001, 0.0001, 500, deadline, -1, -1, ProblemType.MINIMIZE),
+                function,
+                null,
+                new StateChangeContext(),
+                8,
+                pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        long timePass = System.currentTimeMillis() - start;
+
+        // With 8 chains in 2 threads, the chains waiting for a thread start late but stop in the same deadline.
+        assertEquals(deadline, timePass, 200L);
+        assertTrue(copies.get() >= 8, "Every chain starts from a copy of the function");
+    }
+
+    /**
+     * A point of a line that moves in small steps, the distance to 100 is the objective function.
+     */
+    static class Walk implements ReversibleAnnealingFunction {
+        private double x;
+
+        Walk(double x) {
+            this.x = x;
+        }
+
+        @Override
+        public double compute() {
+            return Math.abs(x - 100);
+        }
+
+        @Override
+        public void reconfigure() {
+            move().apply();
+        }
+
+        @Override
+        public AnnealingMove move() {
+            return move(ThreadLocalRandom.current());
+        }
+
+        @Override
+        public AnnealingMove move(RandomGenerator random) {
+            double old = x;
+            double value = x + 0.2 * random.nextDouble() - 0.1;
+
+            return new AnnealingMove() {
+                @Override
+                public void apply() { x = value; }
+
+                @Override
+                public void undo() { x = old; }
+            };
+        }
+
+        @Override
+        public void assign(AnnealingFunction f) { x = ((Walk) f).x; }
+
+        @Override
+        public boolean isValid() { return true; }
+
+        @Override
+        public AnnealingFunction copy() { return new Walk(x); }
+    }
+
+    @Test
+    void chainGoesOnFromTheSharedBestTest() {
+        // So cold that only the moves to a lower energy are accepted, 4 temperatures of 100 steps.
+        AnnealingContext ctx = new AnnealingContext(0.001, 0.0001, 0.5, 100, 60000, -1, -1,
+            ProblemType.MINIMIZE, CoolingSchedule.geometric(), 42);
+        SharedBest shared = new SharedBest();
+
+        shared.offer(10, new Walk(90));
+
+        AnnealingFunction best = SimulatedAnnealing.optimize(ctx, new Walk(0), null, new StateChangeContext(),
+            new TimeBudget(ctx.deadline()), shared, ctx.randomSource().split());
+
+        // From 0 the chain walks about 10, only from the shared point it gets closer to 100 than 90 is.
+        assertTrue(best.compute() < 9, "Best: " + best.compute());
+    }
+
+    @Test
+    void invalidChainsTest() {
+        assertThrows(IllegalArgumentException.class, () -> MultiStartAnnealing.optimize(minimizeAnnealingContext, new QuadraticFunction(), 0));
+    }
+}
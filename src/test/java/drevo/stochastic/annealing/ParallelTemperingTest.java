@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.annealing.function.QuadraticFunction;
+import drevo.stochastic.annealing.function.RastriginFunction;
+import drevo.stochastic.state.StateChangeContext;
+
+class ParallelTemperingTest extends BaseFunctionTest {
+    @Test
+    void minimizeQuadraticFunctionTest() {
+        QuadraticFunction function = new QuadraticFunction();
+
+        QuadraticFunction result = (QuadraticFunction) ParallelTempering.optimize(
+            new AnnealingContext(10000, 0.1, 0.01, 2000, 1000, -1, 300, ProblemType.MINIMIZE),
+            function,
+            handler,
+            4);
+
+        assertTrue(result.isValid());
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+    }
+
+    @Test
+    void minimizeRastriginFunctionTest() {
+        RastriginFunction function = new RastriginFunction(20);
+        double start = function.compute();
+
+        RastriginFunction result = (RastriginFunction) ParallelTempering.optimize(
+            minimizeAnnealingContext,
+            function,
+            8);
+
+        assertTrue(result.compute() < start, String.format("It didn't minimize. start: %.5f, result.compute(): %.5f.", start, result.compute()));
+    }
+
+    @Test
+    void deadlineTest() {
+        long deadline = 300;
+        long start = System.currentTimeMillis();
+
+        ParallelTempering.optimize(
+            new AnnealingContext(10000, 0.000001, 0.0001, 150000, deadline, -1, -1, ProblemType.MINIMIZE),
+            new QuadraticFunction(),
+            null,
+            new StateChangeContext(),
+            4,
+            new ForkJoinPool(2));
+
+        assertEquals(deadline, System.currentTimeMillis() - start, 200L);
+    }
+
+    @Test
+    void temperatureLadderTest() {
+        AnnealingContext ctx = new AnnealingContext(1000, 0.1, 0.01, 100, 300, -1, -1, ProblemType.MINIMIZE);
+
+        assertEquals(1000, ParallelTempering.temperature(ctx, 0, 5), 10e-9);
+        assertEquals(10, ParallelTempering.temperature(ctx, 2, 5), 10e-9);
+        assertEquals(0.1, ParallelTempering.temperature(ctx, 4, 5), 10e-9);
+    }
+
+    @Test
+    void invalidReplicasTest() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelTempering.optimize(minimizeAnnealingContext, new QuadraticFunction(), 1));
+        assertThrows(IllegalArgumentException.class, () -> ParallelTempering.optimize(
+            new AnnealingContext(1000, 0, 0.01, 100, 300, -1, -1, ProblemType.MINIMIZE), new QuadraticFunction(), 4));
+    }
+}
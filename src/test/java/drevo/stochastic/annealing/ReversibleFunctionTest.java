@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.annealing.function.ReversibleRastriginFunction;
+
+class ReversibleFunctionTest extends BaseFunctionTest {
+    @Test
+    void minimizeRastriginFunctionTest() {
+        AtomicInteger assignCount = new AtomicInteger(0);
+        ReversibleRastriginFunction function = new ReversibleRastriginFunction(30, assignCount);
+        double start = function.compute();
+
+        AnnealingContext ctx = new AnnealingContext(1000, 0.1, 0.01, 5000, 2000, -1, -1, ProblemType.MINIMIZE);
+        AtomicInteger accepted = new AtomicInteger(0);
+        double[] finish = new double[1];
+
+        ReversibleRastriginFunction result = (ReversibleRastriginFunction) SimulatedAnnealing.optimize(ctx, function, state -> {
+            AnnealingState annealingState = (AnnealingState) state;
+
+            if (annealingState.message().equals("Accepted configuration")) {
+                accepted.incrementAndGet();
+            } else if (annealingState.message().startsWith("Finising")) {
+                finish[0] = annealingState.bestValue();
+            }
+        });
+
+        assertTrue(result.isValid());
+        assertTrue(result.compute() < start, String.format("It didn't minimize. start: %.5f, result.compute(): %.5f.", start, result.compute()));
+
+        // The returned solution is the best one, restored undoing the moves accepted after it.
+        assertEquals(finish[0], result.compute(), 10e-6);
+
+        // The best solution is not copied each time it is found.
+        assertTrue(assignCount.get() < accepted.get(), "assign() called " + assignCount.get() + " times for " + accepted.get() + " new best solutions");
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.ProblemType;
+import drevo.stochastic.state.StateChangeContext;
+
+class SeedTest extends BaseFunctionTest {
+    // A long deadline, so the processes end by the final temperature and not by the time.
+    private final AnnealingContext seeded = new AnnealingContext(10000, 0.1, 0.05, 2000, 60000, -1, -1,
+        ProblemType.MINIMIZE, CoolingSchedule.geometric(), 42);
+
+    @Test
+    void simulatedAnnealingTest() {
+        ContinuousFunctionTest.Sphere function = new ContinuousFunctionTest.Sphere(10);
+
+        ContinuousFunctionTest.Sphere first = (ContinuousFunctionTest.Sphere) SimulatedAnnealing.optimize(seeded, function.copy());
+        ContinuousFunctionTest.Sphere second = (ContinuousFunctionTest.Sphere) SimulatedAnnealing.optimize(seeded, function.copy());
+
+        assertArrayEquals(first.values(), second.values());
+        assertEquals(first.compute(), second.compute());
+    }
+
+    @Test
+    void parallelTemperingTest() {
+        ContinuousFunctionTest.Sphere function = new ContinuousFunctionTest.Sphere(10);
+
+        // The same seed gives the same result with any number of threads.
+        AnnealingFunction first = ParallelTempering.optimize(seeded, function.copy(), null, new StateChangeContext(), 4, new ForkJoinPool(1));
+        AnnealingFunction second = ParallelTempering.optimize(seeded, function.copy(), null, new StateChangeContext(), 4, new ForkJoinPool(4));
+
+        assertArrayEquals(((ContinuousFunctionTest.Sphere) first).values(), ((ContinuousFunctionTest.Sphere) second).values());
+    }
+
+    @Test
+    void seedIsKeptTest() {
+        assertTrue(minimizeAnnealingContext.seed().isEmpty());
+        assertEquals(42, seeded.seed().getAsLong());
+        assertEquals(42, seeded.randomSource().seed());
+        assertEquals(42, TemperatureCalibration.calibrate(seeded, new ContinuousFunctionTest.Sphere(10)).seed().getAsLong());
+        assertTrue(seeded.toString().contains("'seed': '42'"));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.annealing.function.QuadraticFunction;
+
+class TemperatureCalibrationTest extends BaseFunctionTest {
+    @Test
+    void testTemperatureHitsTargetAcceptance() {
+        double[] deltas = { 0.5, 1.0, 2.0, 4.0 };
+
+        assertEquals(0.8, TemperatureCalibration.acceptance(deltas, TemperatureCalibration.temperature(deltas, 0.8)), 10e-9);
+        assertEquals(0.001, TemperatureCalibration.acceptance(deltas, TemperatureCalibration.temperature(deltas, 0.001)), 10e-9);
+    }
+
+    @Test
+    void testCalibratedContext() {
+        QuadraticFunction function = new QuadraticFunction();
+        AnnealingContext ctx = TemperatureCalibration.calibrate(minimizeAnnealingContext, function);
+
+        assertTrue(ctx.initialTemperature() > ctx.finalTemperature());
+        assertEquals(minimizeAnnealingContext.steps(), ctx.steps());
+        assertSame(minimizeAnnealingContext.coolingSchedule(), ctx.coolingSchedule());
+
+        // A new sample of the function is accepted near the target ratios.
+        double[] deltas = TemperatureCalibration.sample(ctx, function, 10000);
+
+        assertEquals(0.8, TemperatureCalibration.acceptance(deltas, ctx.initialTemperature()), 0.05);
+        assertEquals(0.001, TemperatureCalibration.acceptance(deltas, ctx.finalTemperature()), 0.01);
+
+        QuadraticFunction result = (QuadraticFunction) SimulatedAnnealing.optimize(ctx, function);
+
+        assertTrue(Math.abs(result.compute()) < 10e-5, String.format("It didn't minimize. result.compute(): %.5f.", result.compute()));
+    }
+
+    @Test
+    void testConstantFunctionIsNotCalibrated() {
+        AnnealingContext ctx = TemperatureCalibration.calibrate(minimizeAnnealingContext, new ContinuousFunctionTest.Sphere(2) {
+            @Override
+            public double compute(double[] x) {
+                return 1.0;
+            }
+
+            @Override
+            public AnnealingFunction copy() {
+                return this;
+            }
+        });
+
+        assertSame(minimizeAnnealingContext, ctx);
+    }
+
+    @Test
+    void testInvalidCalibration() {
+        assertThrows(IllegalArgumentException.class, () -> TemperatureCalibration.calibrate(minimizeAnnealingContext, new QuadraticFunction(), 0, 0.8, 0.001));
+        assertThrows(IllegalArgumentException.class, () -> TemperatureCalibration.calibrate(minimizeAnnealingContext, new QuadraticFunction(), 100, 0.001, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> TemperatureCalibration.calibrate(minimizeAnnealingContext, new QuadraticFunction(), 100, 1.0, 0.001));
+    }
+}
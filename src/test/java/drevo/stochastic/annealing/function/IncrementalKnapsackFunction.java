@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing.function;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import drevo.stochastic.annealing.AnnealingFunction;
+import drevo.stochastic.annealing.IncrementalAnnealingFunction;
+
+/**
+ * The knapsack problem without penalty, where a move put or remove one item and its delta is
+ * computed from the sums of values and weights.
+ */
+public class IncrementalKnapsackFunction implements IncrementalAnnealingFunction {
+    private ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+    private final double[] v;
+    private final double[] w;
+    private final double restrition;
+    private final int[] x;
+    private final AtomicInteger computeCount;
+
+    private double sumV;
+    private double sumW;
+    private int proposed;
+
+    public IncrementalKnapsackFunction(double[] v, double[] w, double restrition, AtomicInteger computeCount) {
+        if(v.length != w.length) {
+            throw new IllegalArgumentException("Dimention of values and weight must be equals");
+        }
+
+        this.v = v;
+        this.w = w;
+        this.restrition = restrition;
+        this.x = new int[v.length];
+        this.computeCount = computeCount;
+        this.proposed = -1;
+    }
+
+    public int x(int i) {
+        return x[i];
+    }
+
+    @Override
+    public double compute() {
+        computeCount.incrementAndGet();
+
+        double sum = 0.0;
+
+        for(int i = 0; i < x.length; i++) {
+            sum += v[i] * x[i];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double propose() {
+        proposed = rnd.nextInt(x.length);
+
+        double sign = x[proposed] == 0 ? 1 : -1;
+
+        if(sumW + sign * w[proposed] >= restrition) {
+            return Double.NaN;
+        }
+
+        return sign * v[proposed];
+    }
+
+    @Override
+    public void commit() {
+        double sign = x[proposed] == 0 ? 1 : -1;
+
+        sumV += sign * v[proposed];
+        sumW += sign * w[proposed];
+        x[proposed] = 1 - x[proposed];
+        proposed = -1;
+    }
+
+    @Override
+    public void reject() {
+        proposed = -1;
+    }
+
+    @Override
+    public void reconfigure() {
+        proposed = rnd.nextInt(x.length);
+        commit();
+    }
+
+    @Override
+    public void assign(AnnealingFunction f) {
+        if (f instanceof IncrementalKnapsackFunction knapsackFunction && knapsackFunction.x.length == x.length) {
+            System.arraycopy(knapsackFunction.x, 0, x, 0, x.length);
+            sumV = knapsackFunction.sumV;
+            sumW = knapsackFunction.sumW;
+        }
+    }
+
+    @Override
+    public boolean isValid() {
+        return sumW < restrition;
+    }
+
+    @Override
+    public AnnealingFunction copy() {
+        IncrementalKnapsackFunction clone = new IncrementalKnapsackFunction(v, w, restrition, computeCount);
+
+        clone.assign(this);
+
+        return clone;
+    }
+}
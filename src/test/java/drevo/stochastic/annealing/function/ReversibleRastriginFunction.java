@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.annealing.function;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import drevo.stochastic.annealing.AnnealingFunction;
+import drevo.stochastic.annealing.AnnealingMove;
+import drevo.stochastic.annealing.ReversibleAnnealingFunction;
+
+/**
+ * The Rastrigin function where a move changes one coordinate and its delta is the change of one term of the sum.
+ */
+public class ReversibleRastriginFunction implements ReversibleAnnealingFunction {
+    private ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+    private final double[] x;
+    private final AtomicInteger assignCount;
+
+    public ReversibleRastriginFunction(int dimention, AtomicInteger assignCount) {
+        this.x = new double[dimention];
+        this.assignCount = assignCount;
+
+        for(int i = 0; i < dimention; i++) {
+            x[i] = rnd.nextDouble(-5.12, 5.12);
+        }
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    private static double term(double value) {
+        return value*value - 10*Math.cos(2*Math.PI*value);
+    }
+
+    @Override
+    public double compute() {
+        double sum = 10*x.length;
+
+        for(double value : x) {
+            sum += term(value);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public AnnealingMove move() {
+        int idx = rnd.nextInt(x.length);
+        double value = x[idx] + rnd.nextDouble(-0.5, 0.5);
+
+        return new AnnealingMove() {
+            private final double old = x[idx];
+
+            @Override
+            public double delta() {
+                return term(value) - term(old);
+            }
+
+            @Override
+            public void apply() {
+                x[idx] = value;
+            }
+
+            @Override
+            public void undo() {
+                x[idx] = old;
+            }
+        };
+    }
+
+    @Override
+    public void reconfigure() {
+        move().apply();
+    }
+
+    @Override
+    public void assign(AnnealingFunction f) {
+        if (f instanceof ReversibleRastriginFunction rastriginFunction && rastriginFunction.x.length == x.length) {
+            assignCount.incrementAndGet();
+            System.arraycopy(rastriginFunction.x, 0, x, 0, x.length);
+        }
+    }
+
+    @Override
+    public boolean isValid() {
+        for(double value : x) {
+            if(value < -5.12 || value > 5.12) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public AnnealingFunction copy() {
+        ReversibleRastriginFunction clone = new ReversibleRastriginFunction(x.length, assignCount);
+
+        System.arraycopy(x, 0, clone.x, 0, x.length);
+
+        return clone;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class ContinuousParticleTest {
+    private final Function<ContinuousParticle, Double> sphere = particle -> {
+        double sum = 0.0;
+
+        for (double x : particle.getPosition()) {
+            sum += x * x;
+        }
+
+        return sum;
+    };
+
+    @Test
+    void testInPlaceVelocityUpdate() {
+        ContinuousParticle particle = new ContinuousParticle(new double[] {1.0, -2.0}, new double[] {0.5, 0.25});
+        ContinuousParticle guide = new ContinuousParticle(new double[] {0.0, 0.0}, new double[] {0.0, 0.0});
+        particle.setPersonalBest(new ContinuousParticle(new double[] {2.0, -1.0}, new double[] {0.0, 0.0}));
+
+        // The components as built by the default implementation, with the same random numbers.
+        Random expectedRandom = new Random(42);
+        double[] cognitive = particle.calculateComponent(particle.getPersonalBest(), particle, 1.5, expectedRandom);
+        double[] social = particle.calculateComponent(guide, particle, 2.0, expectedRandom);
+        double[] expected = new double[2];
+
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 0.7 * particle.getVelocity()[i] + cognitive[i] + social[i];
+        }
+
+        double[] velocity = particle.getVelocity();
+
+        particle.updateVelocity(guide, 0.7, 1.5, 2.0, new Random(42));
+
+        assertSame(velocity, particle.getVelocity(), "The velocity is updated in place");
+        assertArrayEquals(expected, particle.getVelocity());
+    }
+
+    @Test
+    void testArraysAreKept() {
+        ContinuousParticle particle = new ContinuousParticle(new double[] {1.0, 2.0}, new double[] {0.0, 0.0});
+        double[] position = particle.getPosition();
+        double[] velocity = particle.getVelocity();
+
+        particle.setVelocity(new double[] {0.5, -0.5});
+        particle.updatePosition();
+        particle.assing(new ContinuousParticle(new double[] {3.0, 4.0}, new double[] {1.0, 1.0}));
+
+        assertSame(position, particle.getPosition());
+        assertSame(velocity, particle.getVelocity());
+        assertArrayEquals(new double[] {3.0, 4.0}, particle.getPosition());
+
+        // The personal best is a copy, it does not move with the particle.
+        particle.setPersonalBest(particle);
+        assertNotSame(particle.getPosition(), particle.getPersonalBest().getPosition());
+    }
+
+    @Test
+    void testOptimization() {
+        Random rand = new Random(5);
+        List<ContinuousParticle> swarm = new ArrayList<>();
+
+        for (int i = 0; i < 30; i++) {
+            double[] position = {rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5};
+            swarm.add(new ContinuousParticle(position, new double[3]));
+        }
+
+        PSO<ContinuousParticle> pso = new PSO<>(new PSOContext(200, 0.729, 1.49445, 1.49445), sphere, null, swarm);
+        pso.optimize();
+
+        assertTrue(pso.getGlobalBestFitness() < 1e-3, "Fitness: " + pso.getGlobalBestFitness());
+    }
+
+    @Test
+    void testInvalidParticles() {
+        assertThrows(IllegalArgumentException.class, () -> new ContinuousParticle(null, new double[] {0.0}));
+        assertThrows(IllegalArgumentException.class, () -> new ContinuousParticle(new double[0], new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new ContinuousParticle(new double[] {0.0}, new double[] {0.0, 0.0}));
+        assertThrows(IllegalArgumentException.class, () -> new ContinuousParticle(new double[] {0.0}, new double[] {0.0}).setVelocity(new double[2]));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.math.BenchmarkFunction;
+import drevo.math.Interval;
+import drevo.stochastic.Optimization;
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.WaitStrategy;
+
+class DensePSOTest {
+    private final DenseFitness sphere = (positions, offset, dimention) -> {
+        double sum = 0.0;
+
+        for (int i = 0; i < dimention; i++) {
+            double x = positions[offset + i];
+            sum += x * x;
+        }
+
+        return sum;
+    };
+
+    @Test
+    void testDenseSwarm() {
+        DenseSwarm swarm = new DenseSwarm(new double[][] {{1, 2}, {3, 4}}, new double[][] {{0.1, 0.2}, {0.3, 0.4}});
+
+        assertEquals(2, swarm.size());
+        assertEquals(2, swarm.dimention());
+        assertArrayEquals(new double[] {1, 2, 3, 4}, swarm.positions);
+        assertEquals(0.4, swarm.velocity(1, 1));
+
+        DenseSwarm random = new DenseSwarm(100, 3, new Interval(-5, 5));
+
+        for (int p = 0; p < random.size(); p++) {
+            for (int i = 0; i < random.dimention(); i++) {
+                assertTrue(-5 <= random.position(p, i) && random.position(p, i) <= 5);
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new DenseSwarm(0, 3, new Interval(-5, 5)));
+        assertThrows(IllegalArgumentException.class, () -> new DenseSwarm(new double[][] {{1, 2}, {3}}, new double[][] {{0, 0}, {0, 0}}));
+    }
+
+    @Test
+    void testDensePSOOptimization() {
+        PSOContext context = new PSOContext(1000, 0.729, 1.49445, 1.49445, 0.00001, 100);
+        DensePSO pso = new DensePSO(context, sphere, null, new DenseSwarm(30, 2, new Interval(-5, 5)));
+
+        pso.optimize();
+
+        double[] best = pso.getGlobalBest();
+
+        assertTrue(pso.getGlobalBestFitness() < 0.1, "Fitness: " + pso.getGlobalBestFitness());
+        assertEquals(pso.getGlobalBestFitness(), sphere.evaluate(best, 0, best.length), 1e-12);
+    }
+
+    @Test
+    void testPersonalBests() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+        DenseSwarm swarm = new DenseSwarm(50, 10, new Interval(-5, 5));
+        DensePSO pso = new DensePSO(context, sphere, null, new StateChangeContext(), null, swarm);
+
+        pso.optimize();
+
+        for (int p = 0; p < swarm.size(); p++) {
+            assertEquals(swarm.bestFitness(p), sphere.evaluate(swarm.bestPositions, p * swarm.dimention(), swarm.dimention()), 1e-12);
+            assertTrue(pso.getGlobalBestFitness() <= swarm.bestFitness(p));
+        }
+    }
+
+    @Test
+    void testLargeSwarm() {
+        PSOContext context = new PSOContext(200, 0.729, 1.49445, 1.49445);
+        DenseSwarm swarm = new DenseSwarm(2000, 50, new Interval(-5, 5));
+        DensePSO pso = new DensePSO(context, sphere, null, swarm);
+
+        double start = pso.getGlobalBestFitness();
+
+        pso.optimize();
+
+        assertTrue(pso.getGlobalBestFitness() < start / 10, String.format("From %f to %f", start, pso.getGlobalBestFitness()));
+    }
+
+    @Test
+    void testDensePSOAsyncCancel() throws InterruptedException {
+        PSOContext context = new PSOContext(Integer.MAX_VALUE, 0.729, 1.49445, 1.49445);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        DensePSO pso = new DensePSO(context, sphere, null, new DenseSwarm(30, 2, new Interval(-5, 5)));
+        Optimization<double[]> optimization = pso.optimizeAsync(task -> new Thread(() -> {
+            task.run();
+            stopped.countDown();
+        }).start(), new TimeBudget(60000));
+
+        Thread.sleep(100);
+
+        assertEquals(2, optimization.best().length);
+        assertTrue(optimization.cancel());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS), "The optimization must stop after cancelled");
+        assertTrue(optimization.progress() < 1.0);
+    }
+
+    @Test
+    void testBenchmarkFunction() {
+        PSOContext context = new PSOContext(500, 0.729, 1.49445, 1.49445);
+        DensePSO pso = new DensePSO(context, BenchmarkFunction.RASTRIGIN::evaluate, null,
+            new DenseSwarm(100, 4, BenchmarkFunction.RASTRIGIN.bounds()));
+
+        pso.optimize();
+
+        // Rastrigin has a local minimum near every integer point, the swarm must find one of the lowest.
+        assertTrue(pso.getGlobalBestFitness() < 5.0, "Fitness: " + pso.getGlobalBestFitness());
+    }
+
+    /**
+     * Optimize the same swarm sequentially and with a pool of 4 threads, shut down in the end, and check that
+     * both find the same global best.
+     */
+    private DensePSO assertSameResult(PSOContext context, int size) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            DensePSO sequential = new DensePSO(context, sphere, null, new StateChangeContext(), null,
+                new DenseSwarm(size, 10, new Interval(-5, 5), new SplittableRandom(7)));
+            DensePSO parallel = new DensePSO(context, sphere, null, new StateChangeContext(), pool,
+                new DenseSwarm(size, 10, new Interval(-5, 5), new SplittableRandom(7)));
+
+            sequential.optimize();
+            parallel.optimize();
+
+            assertEquals(sequential.getGlobalBestFitness(), parallel.getGlobalBestFitness());
+            assertArrayEquals(sequential.getGlobalBest(), parallel.getGlobalBest());
+
+            return sequential;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSeededContextSequentialAndParallel() {
+        assertSameResult(new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, 42), 200);
+    }
+
+    @Test
+    void testLocalTopologySequentialAndParallel() {
+        PSOContext context = new PSOContext(200, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, Topology.vonNeumann(), 42);
+
+        DensePSO pso = assertSameResult(context, 100);
+
+        assertTrue(pso.getGlobalBestFitness() < 1e-3, "Fitness: " + pso.getGlobalBestFitness());
+    }
+
+    @Test
+    void testFailureFinishesTheListener() throws Exception {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+        int[] calls = {0};
+
+        DenseFitness failing = (positions, offset, dimention) -> {
+            if (++calls[0] > 100) {
+                throw new IllegalStateException("Simulation failed");
+            }
+            return sphere.evaluate(positions, offset, dimention);
+        };
+
+        try {
+            assertThrows(IllegalStateException.class, () -> new DensePSO(context, (positions, offset, dimention) -> {
+                throw new IllegalStateException("Simulation failed");
+            }, state -> {}, stateContext, null, new DenseSwarm(30, 2, new Interval(-5, 5))));
+
+            // The only thread of the executor is free again, the listener did not stay waiting for states.
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+
+            DensePSO pso = new DensePSO(context, failing, state -> {}, stateContext, null, new DenseSwarm(30, 2, new Interval(-5, 5)));
+
+            assertThrows(IllegalStateException.class, pso::optimize);
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -74,6 +74,19 @@ public class DoubleParticle implements Particle<DoubleParticle> {
         return component;
     }
     
+    @Override
+    public void updateVelocity(DoubleParticle guide, double inertiaWeight, double cognitiveWeight, double socialWeight, Random random) {
+        double[] best = personalBest.position;
+
+        for (int i = 0; i < velocity.length; i++) {
+            velocity[i] = inertiaWeight * velocity[i] + cognitiveWeight * random.nextDouble() * (best[i] - position[i]);
+        }
+
+        for (int i = 0; i < velocity.length; i++) {
+            velocity[i] += socialWeight * random.nextDouble() * (guide.position[i] - position[i]);
+        }
+    }
+
     public double[] getPosition() {
         return position;
     }
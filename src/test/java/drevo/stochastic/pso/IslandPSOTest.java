@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.pso.PSO.Migrant;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.WaitStrategy;
+
+class IslandPSOTest {
+    private final Function<DoubleParticle, Double> sphere = particle -> {
+        double[] pos = particle.getPosition();
+        return pos[0] * pos[0] + pos[1] * pos[1];
+    };
+
+    private final Random rand = new Random(5);
+
+    private List<DoubleParticle> swarm(int size, double offset) {
+        List<DoubleParticle> swarm = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            double[] position = {rand.nextDouble() * 10 - 5 + offset, rand.nextDouble() * 10 - 5 + offset};
+            double[] velocity = {rand.nextDouble() * 0.1 - 0.05, rand.nextDouble() * 0.1 - 0.05};
+            swarm.add(new DoubleParticle(position, velocity));
+        }
+
+        return swarm;
+    }
+
+    @Test
+    void testIslandOptimization() {
+        List<PSOContext> contexts = List.of(
+            new PSOContext(200, 0.729, 1.49445, 1.49445),
+            new PSOContext(200, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, Topology.ring(1)),
+            new PSOContext(200, 0.6, 1.7, 1.7),
+            new PSOContext(200, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, Topology.vonNeumann()));
+        List<List<DoubleParticle>> swarms = List.of(swarm(15, 0), swarm(15, 0), swarm(15, 0), swarm(15, 0));
+
+        IslandPSO<DoubleParticle> pso = new IslandPSO<>(contexts, sphere, null, new StateChangeContext(), swarms, 2, 10, 2);
+        pso.optimize();
+
+        assertTrue(pso.getGlobalBestFitness() < 1e-3, "Fitness: " + pso.getGlobalBestFitness());
+        assertEquals(pso.getGlobalBestFitness(), sphere.apply(pso.getGlobalBest()));
+
+        for (PSO<DoubleParticle> island : pso.getIslands()) {
+            assertEquals(1.0, island.progress());
+        }
+    }
+
+    @Test
+    void testMigrantsReplaceTheWorstPersonalBests() {
+        PSOContext context = new PSOContext(10, 0.729, 1.49445, 1.49445);
+        List<DoubleParticle> swarm = swarm(10, 20);
+        PSO<DoubleParticle> island = new PSO<>(context, sphere, null, new StateChangeContext(), null, swarm);
+
+        double worst = swarm.stream().mapToDouble(DoubleParticle::getPersonalBestFitness).max().getAsDouble();
+        DoubleParticle origin = new DoubleParticle(new double[] {0, 0}, new double[] {0, 0});
+
+        island.immigrate(List.of(new Migrant<>(origin, 0.0)));
+
+        assertEquals(0.0, island.getGlobalBestFitness());
+        assertArrayEquals(new double[] {0, 0}, island.getGlobalBest().getPosition());
+        assertTrue(swarm.stream().noneMatch(particle -> particle.getPersonalBestFitness() == worst));
+
+        List<Migrant<DoubleParticle>> emigrants = island.emigrants(3);
+
+        assertEquals(3, emigrants.size());
+        assertEquals(0.0, emigrants.get(0).fitness());
+        assertTrue(emigrants.get(1).fitness() <= emigrants.get(2).fitness());
+    }
+
+    @Test
+    void testFailureStopsTheIslands() throws InterruptedException {
+        PSOContext context = new PSOContext(Integer.MAX_VALUE, 0.729, 1.49445, 1.49445);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+
+        List<DoubleParticle> failingSwarm = swarm(10, 0);
+        Set<DoubleParticle> failingParticles = Collections.newSetFromMap(new IdentityHashMap<>());
+        failingParticles.addAll(failingSwarm);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Only the particles of the second island fail, after some iterations.
+        Function<DoubleParticle, Double> failing = particle -> {
+            if (failingParticles.contains(particle) && calls.incrementAndGet() > 500) {
+                throw new IllegalStateException("Simulation failed");
+            }
+            return sphere.apply(particle);
+        };
+
+        IslandPSO<DoubleParticle> pso = new IslandPSO<>(List.of(context, context, context), failing, state -> {}, stateContext,
+            List.of(swarm(10, 0), failingSwarm, swarm(10, 0)), 1, 5, 1);
+
+        try {
+            // The other islands have no limit of iterations, they only stop because the failure expires the budget.
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(IllegalStateException.class, pso::optimize));
+
+            for (PSO<DoubleParticle> island : pso.getIslands()) {
+                assertTrue(island.progress() < 1.0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // The executor only terminates if no listener stays waiting for states.
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailureInTheInitialization() throws InterruptedException {
+        PSOContext context = new PSOContext(10, 0.729, 1.49445, 1.49445);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+        AtomicInteger calls = new AtomicInteger();
+
+        // The first island is created, the second fails to evaluate its swarm.
+        Function<DoubleParticle, Double> failing = particle -> {
+            if (calls.incrementAndGet() > 10) {
+                throw new IllegalStateException("Simulation failed");
+            }
+            return sphere.apply(particle);
+        };
+
+        try {
+            assertThrows(IllegalStateException.class, () -> new IslandPSO<>(List.of(context, context), failing, state -> {}, stateContext,
+                List.of(swarm(10, 0), swarm(10, 0)), 1, 5, 1));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvalidIslands() {
+        PSOContext context = new PSOContext(10, 0.729, 1.49445, 1.49445);
+
+        assertThrows(IllegalArgumentException.class, () -> new IslandPSO<>(List.of(context), sphere, null, List.of(swarm(5, 0), swarm(5, 0)), 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> new IslandPSO<>(List.of(context), sphere, null, List.of(swarm(5, 0)), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new IslandPSO<>(List.of(context), sphere, null, List.of(swarm(5, 0)), 5, 6));
+    }
+}
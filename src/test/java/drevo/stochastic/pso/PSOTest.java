@@ -17,15 +17,29 @@
 package drevo.stochastic.pso;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
+import drevo.stochastic.Optimization;
+import drevo.stochastic.RandomSource;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
 import drevo.stochastic.state.StateChangeHandler;
+import drevo.stochastic.state.WaitStrategy;
 
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 class PSOTest {
     private List<DoubleParticle> swarm;
@@ -135,4 +149,219 @@ class PSOTest {
         assertTrue(pso.getGlobalBestFitness() <= 2.0, 
             "Initial fitness was 1^2 + 1^2 = 2.0");
     }
+
+    @Test
+    void testPSOWithoutHandler() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+
+        PSO<DoubleParticle> pso = new PSO<>(context, sphereFunction, null, swarm);
+
+        pso.optimize();
+
+        assertNotNull(pso.getGlobalBest());
+        assertTrue(pso.getGlobalBestFitness() < 1.0);
+    }
+
+    @Test
+    void testPSOAsync() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+
+        PSO<DoubleParticle> pso = new PSO<>(context, sphereFunction, null, swarm);
+        Optimization<DoubleParticle> optimization = pso.optimizeAsync();
+
+        DoubleParticle best = optimization.join();
+
+        assertSame(pso.getGlobalBest(), best);
+        assertEquals(1.0, optimization.progress());
+        assertTrue(pso.getGlobalBestFitness() < 1.0);
+    }
+
+    @Test
+    void testPSOAsyncCancel() throws InterruptedException {
+        PSOContext context = new PSOContext(Integer.MAX_VALUE, 0.729, 1.49445, 1.49445);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        PSO<DoubleParticle> pso = new PSO<>(context, sphereFunction, null, swarm);
+        Optimization<DoubleParticle> optimization = pso.optimizeAsync(task -> new Thread(() -> {
+            task.run();
+            stopped.countDown();
+        }).start());
+
+        Thread.sleep(100);
+
+        assertNotNull(optimization.best());
+        assertTrue(optimization.cancel());
+        assertTrue(optimization.isCancelled());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS), "The optimization must stop after cancelled");
+        assertTrue(optimization.progress() < 1.0);
+    }
+
+    @Test
+    void testGlobalBestIsTheBestPersonalBest() {
+        PSOContext context = new PSOContext(50, 0.729, 1.49445, 1.49445);
+
+        PSO<DoubleParticle> pso = new PSO<>(context, sphereFunction, null, swarm);
+        pso.optimize();
+
+        double best = swarm.stream().mapToDouble(DoubleParticle::getPersonalBestFitness).min().getAsDouble();
+
+        // A parallel update can never replace a better global best by a worse one.
+        assertEquals(best, pso.getGlobalBestFitness());
+        assertEquals(best, sphereFunction.apply(pso.getGlobalBest()));
+    }
+
+    /**
+     * Optimize the swarm with the first engine and a copy of it with the second one, sharing a pool of 4 threads,
+     * and check that both find the same global best.
+     */
+    private void assertSameResult(BiFunction<List<DoubleParticle>, ForkJoinPool, PSO<DoubleParticle>> first,
+            BiFunction<List<DoubleParticle>, ForkJoinPool, PSO<DoubleParticle>> second) {
+        List<DoubleParticle> copy = new ArrayList<>();
+
+        for (DoubleParticle particle : swarm) {
+            copy.add(particle.copy());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            PSO<DoubleParticle> expected = first.apply(swarm, pool);
+            PSO<DoubleParticle> actual = second.apply(copy, pool);
+
+            expected.optimize();
+            actual.optimize();
+
+            assertEquals(expected.getGlobalBestFitness(), actual.getGlobalBestFitness());
+            assertArrayEquals(expected.getGlobalBest().getPosition(), actual.getGlobalBest().getPosition());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSameSeedSameResult() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+
+        // The particles move in parallel, but each one with its own stream of the source.
+        assertSameResult(
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), pool, new RandomSource(42), particles),
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), pool, new RandomSource(42), particles));
+    }
+
+    @Test
+    void testSeededContextSequentialAndParallel() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, 42);
+
+        assertSameResult(
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), null, particles),
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), pool, particles));
+    }
+
+    static Stream<Topology> topologies() {
+        return Stream.of(Topology.ring(1), Topology.vonNeumann(), Topology.randomDynamic(3, 10));
+    }
+
+    @ParameterizedTest
+    @MethodSource("topologies")
+    void testLocalTopology(Topology topology) {
+        PSOContext context = new PSOContext(300, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, topology);
+
+        PSO<DoubleParticle> pso = new PSO<>(context, sphereFunction, null, swarm);
+        pso.optimize();
+
+        assertTrue(pso.getGlobalBestFitness() < 1e-3, "Fitness: " + pso.getGlobalBestFitness());
+    }
+
+    @ParameterizedTest
+    @MethodSource("topologies")
+    void testLocalTopologySequentialAndParallel(Topology topology) {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, topology, 42);
+
+        assertSameResult(
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), null, particles),
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), pool, particles));
+    }
+
+    @Test
+    void testBatchFitnessSequentialIsOneCall() {
+        PSOContext context = new PSOContext(50, 0.729, 1.49445, 1.49445);
+        int[] calls = {0};
+
+        BatchFitness<DoubleParticle> batch = (particles, from, to, fitness) -> {
+            calls[0]++;
+
+            assertEquals(0, from);
+            assertEquals(particles.size(), to);
+
+            for (int i = from; i < to; i++) {
+                fitness[i] = sphereFunction.apply(particles.get(i));
+            }
+        };
+
+        PSO<DoubleParticle> pso = new PSO<>(context, batch, null, new StateChangeContext(), null, swarm);
+        pso.optimize();
+
+        // One call to initialize the swarm and one for each iteration.
+        assertEquals(51, calls[0]);
+    }
+
+    @Test
+    void testBatchFitnessSameResultAsFunction() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, Topology.ring(2), 42);
+
+        BatchFitness<DoubleParticle> batch = (particles, from, to, fitness) -> {
+            for (int i = from; i < to; i++) {
+                fitness[i] = sphereFunction.apply(particles.get(i));
+            }
+        };
+
+        assertSameResult(
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), null, particles),
+            (particles, pool) -> new PSO<>(context, batch, null, new StateChangeContext(), pool, particles));
+    }
+
+    @Test
+    void testParticleFitnessSameResultAsFunction() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, 42);
+
+        ParticleFitness<DoubleParticle> sphere = particle -> {
+            double[] pos = particle.getPosition();
+            return pos[0] * pos[0] + pos[1] * pos[1];
+        };
+
+        assertSameResult(
+            (particles, pool) -> new PSO<>(context, sphereFunction, null, new StateChangeContext(), null, particles),
+            (particles, pool) -> new PSO<>(context, sphere, null, new StateChangeContext(), pool, particles));
+    }
+
+    @Test
+    void testFailureFinishesTheListener() throws Exception {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+        int[] calls = {0};
+
+        Function<DoubleParticle, Double> failing = particle -> {
+            if (++calls[0] > 100) {
+                throw new IllegalStateException("Simulation failed");
+            }
+            return sphereFunction.apply(particle);
+        };
+
+        try {
+            assertThrows(IllegalStateException.class, () -> new PSO<>(context, particle -> {
+                throw new IllegalStateException("Simulation failed");
+            }, state -> {}, stateContext, null, swarm));
+
+            // The only thread of the executor is free again, the listener did not stay waiting for states.
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+
+            PSO<DoubleParticle> pso = new PSO<>(context, failing, state -> {}, stateContext, null, swarm);
+
+            assertThrows(IllegalStateException.class, pso::optimize);
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
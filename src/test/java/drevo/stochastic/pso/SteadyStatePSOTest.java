@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import drevo.stochastic.TimeBudget;
+import drevo.stochastic.state.DeliveryPolicy;
+import drevo.stochastic.state.StateChangeContext;
+import drevo.stochastic.state.WaitStrategy;
+
+class SteadyStatePSOTest {
+    private final Function<DoubleParticle, Double> sphere = particle -> {
+        double[] pos = particle.getPosition();
+        return pos[0] * pos[0] + pos[1] * pos[1];
+    };
+
+    private List<DoubleParticle> swarm;
+
+    @BeforeEach
+    void setUp() {
+        Random rand = new Random(3);
+        swarm = new ArrayList<>();
+
+        for (int i = 0; i < 30; i++) {
+            double[] position = {rand.nextDouble() * 10 - 5, rand.nextDouble() * 10 - 5};
+            double[] velocity = {rand.nextDouble() * 0.1 - 0.05, rand.nextDouble() * 0.1 - 0.05};
+            swarm.add(new DoubleParticle(position, velocity));
+        }
+    }
+
+    @Test
+    void testSteadyStateOptimization() {
+        PSOContext context = new PSOContext(200, 0.729, 1.49445, 1.49445);
+
+        SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, sphere, null, swarm);
+        pso.optimize();
+
+        assertTrue(pso.getGlobalBestFitness() < 1e-3, "Fitness: " + pso.getGlobalBestFitness());
+        assertEquals(200L * 30, pso.getEvaluations());
+        assertEquals(pso.getGlobalBestFitness(), sphere.apply(pso.getGlobalBest()));
+    }
+
+    @Test
+    void testUnevenEvaluationTimes() {
+        PSOContext context = new PSOContext(20, 0.729, 1.49445, 1.49445);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // One particle in ten is ten times slower to evaluate.
+        Function<DoubleParticle, Double> uneven = particle -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(Math.abs(particle.hashCode()) % 10 == 0 ? 1000 : 100));
+            return sphere.apply(particle);
+        };
+
+        double initialBest = swarm.stream().mapToDouble(sphere::apply).min().getAsDouble();
+
+        try {
+            SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, uneven, null, new StateChangeContext(), pool, swarm);
+            pso.optimize();
+
+            assertEquals(20L * 30, pso.getEvaluations());
+            assertTrue(pso.getGlobalBestFitness() <= initialBest);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSeededSequentialRepeats() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, 42);
+        List<DoubleParticle> copy = new ArrayList<>();
+
+        for (DoubleParticle particle : swarm) {
+            copy.add(particle.copy());
+        }
+
+        SteadyStatePSO<DoubleParticle> first = new SteadyStatePSO<>(context, sphere, null, new StateChangeContext(), null, swarm);
+        SteadyStatePSO<DoubleParticle> second = new SteadyStatePSO<>(context, sphere, null, new StateChangeContext(), null, copy);
+
+        first.optimize();
+        second.optimize();
+
+        assertEquals(first.getGlobalBestFitness(), second.getGlobalBestFitness());
+        assertArrayEquals(first.getGlobalBest().getPosition(), second.getGlobalBest().getPosition());
+    }
+
+    @Test
+    void testTimeBudget() {
+        PSOContext context = new PSOContext(Integer.MAX_VALUE, 0.729, 1.49445, 1.49445);
+        List<String> messages = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, sphere, state -> messages.add(((PSOState) state).message()),
+                new StateChangeContext(), pool, swarm);
+            pso.optimize(new TimeBudget(200));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(messages.contains("Early stop due to time limit"), "Messages: " + messages);
+    }
+
+    @Test
+    void testSingleThreadPool() {
+        PSOContext context = new PSOContext(Integer.MAX_VALUE, 0.729, 1.49445, 1.49445);
+        ForkJoinPool pool = new ForkJoinPool(1);
+
+        try {
+            SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, sphere, null, new StateChangeContext(), pool, swarm);
+
+            // The optimization waits in the only thread of the pool where its particles move.
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pso.optimizeAsync(pool, new TimeBudget(500)).join());
+
+            assertTrue(pso.getEvaluations() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsRethrown() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+        int[] calls = {0};
+
+        Function<DoubleParticle, Double> failing = particle -> {
+            synchronized (calls) {
+                if (++calls[0] > 100) {
+                    throw new IllegalStateException("Simulation failed");
+                }
+            }
+            return sphere.apply(particle);
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, failing, null, new StateChangeContext(), pool, swarm);
+
+            assertThrows(IllegalStateException.class, pso::optimize);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testOnlyGlobalTopology() {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445, 0.0, Long.MAX_VALUE, Topology.ring(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new SteadyStatePSO<>(context, sphere, null, swarm));
+    }
+
+    @Test
+    void testFailureFinishesTheListener() throws Exception {
+        PSOContext context = new PSOContext(100, 0.729, 1.49445, 1.49445);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        StateChangeContext stateContext = new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor);
+        int[] calls = {0};
+
+        Function<DoubleParticle, Double> failing = particle -> {
+            if (++calls[0] > 100) {
+                throw new IllegalStateException("Simulation failed");
+            }
+            return sphere.apply(particle);
+        };
+
+        try {
+            assertThrows(IllegalStateException.class, () -> new SteadyStatePSO<>(context, particle -> {
+                throw new IllegalStateException("Simulation failed");
+            }, state -> {}, stateContext, null, swarm));
+
+            // The only thread of the executor is free again, the listener did not stay waiting for states.
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+
+            SteadyStatePSO<DoubleParticle> pso = new SteadyStatePSO<>(context, failing, state -> {}, stateContext, null, swarm);
+
+            assertThrows(IllegalStateException.class, pso::optimize);
+            assertTrue(executor.submit(() -> true).get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
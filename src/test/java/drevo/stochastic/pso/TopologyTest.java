@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.pso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class TopologyTest {
+    @Test
+    void testGlobalHasNoNeighbourhoods() {
+        assertNull(Topology.global().neighbourhoods(10, new SplittableRandom(1)));
+        assertFalse(Topology.global().redraw(5));
+    }
+
+    @Test
+    void testRing() {
+        int[][] neighbourhoods = Topology.ring(1).neighbourhoods(5, new SplittableRandom(1));
+
+        assertArrayEquals(new int[] {4, 0, 1}, neighbourhoods[0]);
+        assertArrayEquals(new int[] {3, 4, 0}, neighbourhoods[4]);
+
+        // A ring wider than the swarm does not repeat particles.
+        assertEquals(3, Topology.ring(5).neighbourhoods(3, new SplittableRandom(1))[0].length);
+        assertThrows(IllegalArgumentException.class, () -> Topology.ring(0));
+    }
+
+    @Test
+    void testVonNeumann() {
+        // A grid of 3 columns: 0 1 2 / 3 4 5 / 6 7 8
+        int[][] neighbourhoods = Topology.vonNeumann().neighbourhoods(9, new SplittableRandom(1));
+
+        int[] center = neighbourhoods[4].clone();
+        Arrays.sort(center);
+
+        assertArrayEquals(new int[] {1, 3, 4, 5, 7}, center);
+        assertEquals(5, neighbourhoods[0].length);
+    }
+
+    @Test
+    void testRandomDynamic() {
+        Topology topology = Topology.randomDynamic(3, 10);
+        int[][] neighbourhoods = topology.neighbourhoods(20, new SplittableRandom(1));
+        int informed = 0;
+
+        for (int i = 0; i < neighbourhoods.length; i++) {
+            assertEquals(i, neighbourhoods[i][0], "A particle is always informed by itself");
+            informed += neighbourhoods[i].length - 1;
+        }
+
+        assertEquals(20 * 3, informed);
+        assertArrayEquals(neighbourhoods[7], topology.neighbourhoods(20, new SplittableRandom(1))[7]);
+
+        assertFalse(topology.redraw(0));
+        assertFalse(topology.redraw(5));
+        assertTrue(topology.redraw(10));
+        assertThrows(IllegalArgumentException.class, () -> Topology.randomDynamic(3, 0));
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class StateChangeChannelTest {
+    record Counter(int value) implements StateChange {}
+
+    static class MutableCounter implements ReusableStateChange<MutableCounter> {
+        int value;
+
+        @Override
+        public void assign(MutableCounter other) { value = other.value; }
+
+        @Override
+        public Counter snapshot() { return new Counter(value); }
+    }
+
+    @Test
+    void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(8, new StateChangeChannel(5, WaitStrategy.BLOCK).capacity());
+        assertEquals(8, new StateChangeChannel(8, WaitStrategy.BLOCK).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new StateChangeChannel(0, WaitStrategy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new StateChangeChannel(8, null));
+    }
+
+    @Test
+    void testOfferAndPollInOrder() {
+        StateChangeChannel channel = new StateChangeChannel(4, WaitStrategy.BUSY_SPIN);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(channel.offer(new Counter(i)));
+        }
+
+        assertFalse(channel.offer(new Counter(4)), "The channel is full");
+        assertEquals(4, channel.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(new Counter(i), channel.poll());
+        }
+
+        assertNull(channel.poll());
+        assertTrue(channel.isEmpty());
+    }
+
+    @Test
+    void testCloseDrainsPublishedStates() {
+        StateChangeChannel channel = new StateChangeChannel(4, WaitStrategy.BLOCK);
+
+        channel.offer(new Counter(1));
+        channel.close();
+
+        assertFalse(channel.offer(new Counter(2)), "A closed channel does not accept new states");
+        assertEquals(new Counter(1), channel.take());
+        assertNull(channel.take());
+    }
+
+    /**
+     * A spinning consumer with a single processor takes the time of the producer, so the tests between
+     * threads would only measure the scheduler.
+     */
+    private static void assumeBusySpinHasItsOwnProcessor(WaitStrategy waitStrategy) {
+        assumeTrue(waitStrategy != WaitStrategy.BUSY_SPIN || Runtime.getRuntime().availableProcessors() > 1,
+            "BUSY_SPIN needs more than one processor");
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void testProducerAndConsumerThreads(WaitStrategy waitStrategy) throws InterruptedException {
+        assumeBusySpinHasItsOwnProcessor(waitStrategy);
+
+        int total = 10_000;
+        StateChangeChannel channel = new StateChangeChannel(16, waitStrategy);
+        List<Integer> received = new ArrayList<>(total);
+
+        Thread consumer = new Thread(() -> {
+            StateChange state;
+
+            while ((state = channel.take()) != null) {
+                received.add(((Counter) state).value());
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < total; i++) {
+            assertTrue(channel.publish(new Counter(i)));
+        }
+
+        channel.close();
+        consumer.join(10_000);
+
+        assertFalse(consumer.isAlive(), "The consumer must finish after the channel is closed");
+        assertEquals(total, received.size());
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void testReusableSlotsAreClaimedAndPublished() {
+        StateChangeChannel channel = new StateChangeChannel(2, WaitStrategy.BUSY_SPIN, MutableCounter::new);
+
+        assertThrows(IllegalStateException.class, () -> channel.offer(new Counter(0)));
+
+        MutableCounter first = (MutableCounter) channel.claim();
+        first.value = 1;
+        channel.publish();
+
+        MutableCounter second = (MutableCounter) channel.claim();
+        second.value = 2;
+        channel.publish();
+
+        assertNotSame(first, second);
+
+        MutableCounter received = (MutableCounter) channel.poll();
+        assertEquals(1, received.value);
+
+        // The consumer always receives the same object, filled with the next slot.
+        assertSame(received, channel.poll());
+        assertEquals(2, received.value);
+
+        // The slot of the first state is free again.
+        assertSame(first, channel.claim());
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void testReusableSlotsBetweenThreads(WaitStrategy waitStrategy) throws InterruptedException {
+        assumeBusySpinHasItsOwnProcessor(waitStrategy);
+
+        int total = 10_000;
+        StateChangeChannel channel = new StateChangeChannel(16, waitStrategy, MutableCounter::new);
+        List<Integer> received = new ArrayList<>(total);
+
+        Thread consumer = new Thread(() -> {
+            StateChange state;
+
+            while ((state = channel.take()) != null) {
+                received.add(((MutableCounter) state).value);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < total; i++) {
+            MutableCounter slot = (MutableCounter) channel.claim();
+            slot.value = i;
+            channel.publish();
+        }
+
+        channel.close();
+        consumer.join(10_000);
+
+        assertFalse(consumer.isAlive(), "The consumer must finish after the channel is closed");
+        assertEquals(total, received.size());
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void testDropOldestNeverWaits() {
+        StateChangeChannel channel = new StateChangeChannel(4, WaitStrategy.BLOCK, BacklogStrategy.DROP_OLDEST, null);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(channel.offer(new Counter(i)));
+        }
+
+        assertEquals(4, channel.size());
+
+        for (int i = 6; i < 10; i++) {
+            assertEquals(new Counter(i), channel.poll());
+        }
+
+        assertNull(channel.poll());
+    }
+
+    @Test
+    void testDropOldestWithReusableSlots() {
+        StateChangeChannel channel = new StateChangeChannel(2, WaitStrategy.BLOCK, BacklogStrategy.DROP_OLDEST, MutableCounter::new);
+
+        for (int i = 0; i < 5; i++) {
+            MutableCounter slot = (MutableCounter) channel.claim();
+            slot.value = i;
+            channel.publish();
+        }
+
+        assertEquals(3, ((MutableCounter) channel.poll()).value);
+        assertEquals(4, ((MutableCounter) channel.poll()).value);
+        assertNull(channel.poll());
+    }
+
+    @Test
+    void testLatestDeliversOnlyTheNewest() {
+        StateChangeChannel channel = new StateChangeChannel(8, WaitStrategy.BLOCK, BacklogStrategy.LATEST, null);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(channel.offer(new Counter(i)));
+        }
+
+        assertEquals(new Counter(4), channel.poll());
+        assertNull(channel.poll());
+
+        for (int i = 5; i < 100; i++) {
+            assertTrue(channel.offer(new Counter(i)), "The producer never waits");
+        }
+
+        assertEquals(new Counter(99), channel.poll());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = BacklogStrategy.class, names = { "DROP_OLDEST", "LATEST" })
+    void testDroppingBetweenThreadsKeepsOrder(BacklogStrategy backlog) throws InterruptedException {
+        int total = 200_000;
+        StateChangeChannel channel = new StateChangeChannel(8, WaitStrategy.PARK, backlog, MutableCounter::new);
+        List<Integer> received = new ArrayList<>();
+
+        Thread consumer = new Thread(() -> {
+            StateChange state;
+
+            while ((state = channel.take()) != null) {
+                received.add(((MutableCounter) state).value);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < total; i++) {
+            MutableCounter slot = (MutableCounter) channel.claim();
+            slot.value = i;
+            channel.publish();
+        }
+
+        channel.close();
+        consumer.join(10_000);
+
+        assertFalse(received.isEmpty());
+        assertEquals(total - 1, received.get(received.size() - 1), "The last state is never dropped");
+
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(received.get(i - 1) < received.get(i), "States are delivered in order, without repetition");
+        }
+    }
+
+    @Test
+    void testListenerDeliversSnapshotsOfReusableStates() throws InterruptedException {
+        List<StateChange> snapshots = new ArrayList<>();
+        StateChangeListener listener = new StateChangeListener(snapshots::add, new StateChangeContext(4, WaitStrategy.BLOCK), MutableCounter::new);
+
+        Thread thread = new Thread(listener);
+        thread.start();
+
+        for (int i = 0; i < 10; i++) {
+            MutableCounter slot = listener.claim();
+            slot.value = i;
+            listener.publish();
+        }
+
+        listener.finish();
+        thread.join(10_000);
+
+        assertEquals(10, snapshots.size());
+        assertEquals(new Counter(9), snapshots.get(9));
+    }
+
+    @Test
+    void testListenerDeliversToHandler() throws InterruptedException {
+        List<StateChange> received = new ArrayList<>();
+        StateChangeListener listener = new StateChangeListener(received::add, new StateChangeContext(2, WaitStrategy.PARK));
+
+        Thread thread = new Thread(listener);
+        thread.start();
+
+        for (int i = 0; i < 100; i++) {
+            listener.onStateChange(new Counter(i));
+        }
+
+        listener.finish();
+        thread.join(10_000);
+
+        assertEquals(100, received.size());
+        assertEquals(new Counter(99), received.get(99));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.stochastic.state;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class StateChangeListenerTest {
+    record Counter(int value) implements StateChange {}
+
+    private List<StateChange> run(DeliveryPolicy policy, int total, long pauseNanos) throws InterruptedException {
+        List<StateChange> received = new ArrayList<>();
+        StateChangeListener listener = new StateChangeListener(received::add,
+            new StateChangeContext(StateChangeContext.DEFAULT_CAPACITY, WaitStrategy.BLOCK, false, policy));
+
+        Thread thread = new Thread(listener);
+        thread.start();
+
+        for (int i = 0; i < total; i++) {
+            listener.onStateChange(new Counter(i));
+
+            if (pauseNanos > 0) {
+                long until = System.nanoTime() + pauseNanos;
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        listener.finish();
+        thread.join(10_000);
+
+        return received;
+    }
+
+    @Test
+    void testDeliveryPolicyValidation() {
+        assertThrows(IllegalArgumentException.class, () -> DeliveryPolicy.everyNth(0));
+        assertThrows(IllegalArgumentException.class, () -> DeliveryPolicy.atMostPerSecond(0));
+        assertThrows(IllegalArgumentException.class, () -> new DeliveryPolicy(1, -1, BacklogStrategy.WAIT));
+        assertThrows(IllegalArgumentException.class, () -> new DeliveryPolicy(1, 0, null));
+    }
+
+    @Test
+    void testAllStatesDelivered() throws InterruptedException {
+        assertEquals(5000, run(DeliveryPolicy.all(), 5000, 0).size());
+    }
+
+    @Test
+    void testEveryNthState() throws InterruptedException {
+        List<StateChange> received = run(DeliveryPolicy.everyNth(10), 1000, 0);
+
+        assertEquals(100, received.size());
+        assertEquals(new Counter(0), received.get(0));
+        assertEquals(new Counter(990), received.get(99));
+    }
+
+    @Test
+    void testAtMostPerSecond() throws InterruptedException {
+        // 200 states in about 200ms, at most 20 per second.
+        long start = System.nanoTime();
+        List<StateChange> received = run(DeliveryPolicy.atMostPerSecond(20), 200, 1_000_000L);
+        long limit = 1 + (System.nanoTime() - start) * 20 / 1_000_000_000L;
+
+        assertFalse(received.isEmpty());
+        assertTrue(received.size() <= limit, "Received " + received.size() + " states, limit " + limit);
+        assertEquals(new Counter(0), received.get(0));
+    }
+
+    @Test
+    void testListenerRunsInContextExecutor() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger(0);
+        Executor executor = task -> {
+            executions.incrementAndGet();
+            new Thread(task).start();
+        };
+
+        List<StateChange> received = new ArrayList<>();
+        StateChangeListener listener = new StateChangeListener(received::add,
+            new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor));
+
+        listener.start();
+
+        for (int i = 0; i < 100; i++) {
+            listener.onStateChange(new Counter(i));
+        }
+
+        listener.finish();
+        listener.join();
+
+        assertEquals(1, executions.get());
+        assertEquals(100, received.size());
+    }
+
+    @Test
+    void testListenerWithoutHandlerDoesNotRun() throws InterruptedException {
+        Executor executor = task -> fail("A listener without handler must not run");
+
+        StateChangeListener listener = new StateChangeListener(null,
+            new StateChangeContext(16, WaitStrategy.BLOCK, false, DeliveryPolicy.all(), executor));
+
+        listener.start();
+        listener.onStateChange(new Counter(0));
+        assertNull(listener.claim());
+        listener.finish();
+        listener.join();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2024 Marcelo Arbori Nogueira - marcelo.arbori@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package drevo.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels in loops over the lanes of the preferred species of the processor, with a scalar loop
+ * for the coordinates left at the end. This class can only be loaded when the module jdk.incubator.vector
+ * is in the boot layer, see {@link VectorSupport}, that creates it by name.
+ */
+final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    @Override
+    public void move(double[] x, double[] v, double[] best, int offset, double[] guide, int guideOffset,
+            double[] r1, double[] r2, int length, double w, double c1, double c2) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(SPECIES, x, offset + i);
+            DoubleVector cognitive = DoubleVector.fromArray(SPECIES, best, offset + i).sub(xv)
+                .mul(DoubleVector.fromArray(SPECIES, r1, i)).mul(c1);
+            DoubleVector social = DoubleVector.fromArray(SPECIES, guide, guideOffset + i).sub(xv)
+                .mul(DoubleVector.fromArray(SPECIES, r2, i)).mul(c2);
+            DoubleVector vv = DoubleVector.fromArray(SPECIES, v, offset + i).mul(w).add(cognitive).add(social);
+
+            vv.intoArray(v, offset + i);
+            xv.add(vv).intoArray(x, offset + i);
+        }
+
+        for (; i < length; i++) {
+            int k = offset + i;
+
+            v[k] = w * v[k] + c1 * r1[i] * (best[k] - x[k]) + c2 * r2[i] * (guide[guideOffset + i] - x[k]);
+            x[k] += v[k];
+        }
+    }
+
+    @Override
+    public double sumOfSquares(double[] x, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(SPECIES, x, offset + i);
+            sum = xv.fma(xv, sum);
+        }
+
+        double result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            result += x[offset + i] * x[offset + i];
+        }
+
+        return result;
+    }
+
+    @Override
+    public double sumOfCosines(double[] x, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            sum = sum.add(DoubleVector.fromArray(SPECIES, x, offset + i).mul(TWO_PI).lanewise(VectorOperators.COS));
+        }
+
+        double result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            result += Math.cos(TWO_PI * x[offset + i]);
+        }
+
+        return result;
+    }
+
+    @Override
+    public double rastrigin(double[] x, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(SPECIES, x, offset + i);
+            DoubleVector cosine = xv.mul(TWO_PI).lanewise(VectorOperators.COS);
+
+            sum = sum.add(xv.fma(xv, cosine.mul(-10.0)));
+        }
+
+        double result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            double xi = x[offset + i];
+            result += xi * xi - 10.0 * Math.cos(TWO_PI * xi);
+        }
+
+        return result;
+    }
+
+    @Override
+    public double rosenbrock(double[] x, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int terms = Math.max(0, length - 1);
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(terms); i < bound; i += SPECIES.length()) {
+            DoubleVector xv = DoubleVector.fromArray(SPECIES, x, offset + i);
+            DoubleVector next = DoubleVector.fromArray(SPECIES, x, offset + i + 1);
+            DoubleVector a = next.sub(xv.mul(xv));
+            DoubleVector b = xv.neg().add(1.0);
+
+            sum = sum.add(a.mul(a).mul(100.0)).add(b.mul(b));
+        }
+
+        double result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; i < terms; i++) {
+            double a = x[offset + i + 1] - x[offset + i] * x[offset + i];
+            double b = 1.0 - x[offset + i];
+
+            result += 100.0 * a * a + b * b;
+        }
+
+        return result;
+    }
+}